@@ -0,0 +1,38 @@
+package lu.aqu.reactivecomponents;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of view state transitions.
+ * <ul>
+ * <li><code>refreshCycle</code>: progress and back to the items, two real transitions</li>
+ * <li><code>repeatedFinish</code>: finishing while the items are shown, e.g. on every adapter
+ * notification, which is suppressed</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ViewStateMachineBenchmark {
+
+    private final ViewStateMachine stateMachine = new ViewStateMachine(ViewStateMachine.STATE_ITEMS);
+    private int itemCount = 20;
+
+    @Benchmark
+    public boolean refreshCycle() {
+        stateMachine.startLoading();
+        return stateMachine.finishLoading(itemCount);
+    }
+
+    @Benchmark
+    public boolean repeatedFinish() {
+        return stateMachine.finishLoading(itemCount);
+    }
+}
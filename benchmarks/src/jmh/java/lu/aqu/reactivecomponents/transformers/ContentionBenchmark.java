@@ -0,0 +1,58 @@
+package lu.aqu.reactivecomponents.transformers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+import lu.aqu.reactivecomponents.FakeMainThread;
+import lu.aqu.reactivecomponents.StubComponent;
+
+/**
+ * Start / finish storms of many threads loading on the same component, as caused by parallel
+ * requests bound to one view.
+ * <ul>
+ * <li><code>dispatcher</code>: 7 threads starting and finishing while an 8th thread acts as the
+ * main thread and runs the posted dispatches, so dispatches are coalesced and rescheduled as on
+ * a device</li>
+ * <li><code>counterStorm</code>: the lock-free in-flight counter alone</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContentionBenchmark {
+
+    private final FakeMainThread mainThread = new FakeMainThread();
+    private final LoadingStateDispatcher dispatcher = new LoadingStateDispatcher(new StubComponent(), mainThread);
+    private final LoadingCounter counter = new LoadingCounter();
+
+    @Benchmark
+    @Group("dispatcher")
+    @GroupThreads(7)
+    public void dispatcherStorm() {
+        dispatcher.acquire();
+        dispatcher.release(LoadingCounter.RELEASE_COMPLETE);
+    }
+
+    @Benchmark
+    @Group("dispatcher")
+    @GroupThreads(1)
+    public int dispatcherMainThread() {
+        return mainThread.drain();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean counterStorm() {
+        counter.acquire();
+        return counter.release(LoadingCounter.RELEASE_COMPLETE);
+    }
+}
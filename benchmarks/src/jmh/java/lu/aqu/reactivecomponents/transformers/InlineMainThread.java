@@ -0,0 +1,28 @@
+package lu.aqu.reactivecomponents.transformers;
+
+import lu.aqu.reactivecomponents.MainThread;
+
+/**
+ * {@link MainThread} running posts immediately on the posting thread, so a dispatch costs no
+ * queueing. Delayed posts are dropped, benchmarks run without loading delays.
+ */
+final class InlineMainThread implements MainThread {
+
+    @Override
+    public void post(Runnable runnable) {
+        runnable.run();
+    }
+
+    @Override
+    public void postDelayed(Runnable runnable, long delayMillis) {
+    }
+
+    @Override
+    public void removeCallbacks(Runnable runnable) {
+    }
+
+    @Override
+    public long uptimeMillis() {
+        return System.nanoTime() / 1000000;
+    }
+}
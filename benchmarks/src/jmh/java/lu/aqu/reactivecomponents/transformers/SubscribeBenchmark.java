@@ -0,0 +1,112 @@
+package lu.aqu.reactivecomponents.transformers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+
+import lu.aqu.reactivecomponents.StubComponent;
+
+/**
+ * Cost of a bound subscription from <code>onSubscribe</code> to termination, per reactive type.
+ * The <code>plain*</code> benchmarks subscribe the same source without binding, the difference is
+ * the overhead added by {@link ReactiveTransformer#bind}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SubscribeBenchmark {
+
+    private ComponentTransformer<Integer> transformer;
+
+    private final Observable<Integer> observable = Observable.just(1);
+    private final Flowable<Integer> flowable = Flowable.just(1);
+    private final Single<Integer> single = Single.just(1);
+    private final Maybe<Integer> maybe = Maybe.just(1);
+    private final Completable completable = Completable.complete();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ReactiveTransformer.setMainThread(new InlineMainThread());
+        transformer = ReactiveTransformer.bind(new StubComponent());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ReactiveTransformer.setMainThread(null);
+    }
+
+    @Benchmark
+    public Disposable plainObservable() {
+        return observable.subscribe();
+    }
+
+    @Benchmark
+    public Disposable observable() {
+        return observable.compose(transformer).subscribe();
+    }
+
+    @Benchmark
+    public Disposable plainFlowable() {
+        return flowable.subscribe();
+    }
+
+    @Benchmark
+    public Disposable flowable() {
+        return flowable.compose(transformer).subscribe();
+    }
+
+    @Benchmark
+    public Disposable plainSingle() {
+        return single.subscribe();
+    }
+
+    @Benchmark
+    public Disposable single() {
+        return single.compose(transformer).subscribe();
+    }
+
+    @Benchmark
+    public Disposable plainMaybe() {
+        return maybe.subscribe();
+    }
+
+    @Benchmark
+    public Disposable maybe() {
+        return maybe.compose(transformer).subscribe();
+    }
+
+    @Benchmark
+    public Disposable plainCompletable() {
+        return completable.subscribe();
+    }
+
+    @Benchmark
+    public Disposable completable() {
+        return completable.compose(transformer).subscribe();
+    }
+
+    /**
+     * subscription released by disposing instead of terminating
+     */
+    @Benchmark
+    public Disposable observableDisposed() {
+        Disposable disposable = Observable.<Integer>never().compose(transformer).subscribe();
+        disposable.dispose();
+        return disposable;
+    }
+}
@@ -0,0 +1,54 @@
+package lu.aqu.reactivecomponents.transformers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import lu.aqu.reactivecomponents.StubComponent;
+
+/**
+ * Throughput of loading state toggles on a single thread.
+ * <ul>
+ * <li><code>toggle</code>: start and finish reaching the component, one dispatch each</li>
+ * <li><code>nestedToggle</code>: a second action inside a running one, which does not reach
+ * the component</li>
+ * <li><code>counterToggle</code>: the in-flight counter alone</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ToggleBenchmark {
+
+    private final StubComponent component = new StubComponent();
+    private final LoadingStateDispatcher dispatcher = new LoadingStateDispatcher(component, new InlineMainThread());
+    private final LoadingCounter counter = new LoadingCounter();
+
+    @Benchmark
+    public boolean toggle() {
+        dispatcher.acquire();
+        dispatcher.release(LoadingCounter.RELEASE_COMPLETE);
+        return component.isLoading();
+    }
+
+    @Benchmark
+    public boolean nestedToggle() {
+        dispatcher.acquire();
+        dispatcher.acquire();
+        dispatcher.release(LoadingCounter.RELEASE_COMPLETE);
+        boolean loading = component.isLoading();
+        dispatcher.release(LoadingCounter.RELEASE_COMPLETE);
+        return loading;
+    }
+
+    @Benchmark
+    public boolean counterToggle() {
+        counter.acquire();
+        return counter.release(LoadingCounter.RELEASE_COMPLETE);
+    }
+}
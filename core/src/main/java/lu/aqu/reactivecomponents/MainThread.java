@@ -0,0 +1,36 @@
+package lu.aqu.reactivecomponents;
+
+/**
+ * Abstraction of the main (UI) thread's message queue.<br>
+ * Allows state changes to be handed over to the main thread and to be replaced by a fake
+ * looper in JVM tests.
+ */
+public interface MainThread {
+
+    /**
+     * enqueues <code>runnable</code> to be run on the main thread
+     *
+     * @param runnable to be run on the main thread
+     */
+    void post(Runnable runnable);
+
+    /**
+     * enqueues <code>runnable</code> to be run on the main thread after <code>delayMillis</code>
+     *
+     * @param runnable    to be run on the main thread
+     * @param delayMillis delay in milliseconds
+     */
+    void postDelayed(Runnable runnable, long delayMillis);
+
+    /**
+     * removes pending posts of <code>runnable</code>
+     *
+     * @param runnable to be removed from the queue
+     */
+    void removeCallbacks(Runnable runnable);
+
+    /**
+     * @return the clock delayed runnables are scheduled with, in milliseconds
+     */
+    long uptimeMillis();
+}
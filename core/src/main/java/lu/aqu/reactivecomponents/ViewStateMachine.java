@@ -0,0 +1,95 @@
+package lu.aqu.reactivecomponents;
+
+/**
+ * State shown by a {@link ReactiveComponent}: nothing yet, the loading state, the empty state or
+ * the content.<br>
+ * States are plain ints, so transitions neither allocate nor depend on Android. A transition to
+ * the state already in effect is a no-op, callers only update their views if {@link #moveTo(int)}
+ * returns true.
+ * <p>
+ * Not thread-safe, components keep a machine per instance and use it on the main thread.
+ */
+public final class ViewStateMachine {
+
+    /**
+     * nothing has been shown yet
+     */
+    public static final int STATE_NONE = -1;
+    /**
+     * the loading state is shown
+     */
+    public static final int STATE_PROGRESS = 0;
+    /**
+     * loading has finished without content, e.g. an empty adapter
+     */
+    public static final int STATE_EMPTY = 1;
+    /**
+     * the content is shown
+     */
+    public static final int STATE_ITEMS = 2;
+
+    private int mState;
+    private int mPreviousState = STATE_NONE;
+
+    public ViewStateMachine() {
+        this(STATE_NONE);
+    }
+
+    /**
+     * @param initialState state in effect before the first transition
+     */
+    public ViewStateMachine(int initialState) {
+        mState = checkState(initialState);
+    }
+
+    /**
+     * @param state one of <code>STATE_PROGRESS</code>, <code>STATE_EMPTY</code> or
+     *              <code>STATE_ITEMS</code>
+     * @return true if the state has changed, false if <code>state</code> already was in effect
+     */
+    public boolean moveTo(int state) {
+        if (checkState(state) == mState) {
+            return false;
+        }
+        mPreviousState = mState;
+        mState = state;
+        return true;
+    }
+
+    /**
+     * @return true if the state has changed to <code>STATE_PROGRESS</code>
+     */
+    public boolean startLoading() {
+        return moveTo(STATE_PROGRESS);
+    }
+
+    /**
+     * @param itemCount number of items loaded
+     * @return true if the state has changed to <code>STATE_ITEMS</code> or <code>STATE_EMPTY</code>
+     */
+    public boolean finishLoading(int itemCount) {
+        return moveTo(itemCount > 0 ? STATE_ITEMS : STATE_EMPTY);
+    }
+
+    public int getState() {
+        return mState;
+    }
+
+    /**
+     * @return state in effect before the last transition, <code>STATE_NONE</code> if none
+     */
+    public int getPreviousState() {
+        return mPreviousState;
+    }
+
+    public boolean isLoading() {
+        return mState == STATE_PROGRESS;
+    }
+
+    private static int checkState(int state) {
+        if (state < STATE_NONE || state > STATE_ITEMS) {
+            throw new IllegalArgumentException("unknown state " + state);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,147 @@
+package lu.aqu.reactivecomponents.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import lu.aqu.reactivecomponents.ViewStateMachine;
+
+/**
+ * Metrics of all components sharing a tag, see {@link ReactiveMetrics}.<br>
+ * All methods are lock-free and may be called from any thread, recording does not allocate.
+ */
+public final class ComponentMetrics {
+
+    /**
+     * the progress view is shown
+     */
+    public static final int STATE_PROGRESS = ViewStateMachine.STATE_PROGRESS;
+    /**
+     * the empty view is shown
+     */
+    public static final int STATE_EMPTY = ViewStateMachine.STATE_EMPTY;
+    /**
+     * the items are shown
+     */
+    public static final int STATE_ITEMS = ViewStateMachine.STATE_ITEMS;
+
+    private final String mTag;
+    private final Histogram mFirstResultLatency = new Histogram();
+    private final Histogram mLoadingDuration = new Histogram();
+    private final AtomicLongArray mTransitions = new AtomicLongArray(3);
+    private final AtomicLong mEmptyBeforeItems = new AtomicLong();
+    private final AtomicLong mAdapterSwaps = new AtomicLong();
+
+    ComponentMetrics(String tag) {
+        mTag = tag;
+    }
+
+    public String getTag() {
+        return mTag;
+    }
+
+    /**
+     * @param millis time from subscription to the first item or termination of a bound stream
+     */
+    public void recordFirstResult(long millis) {
+        mFirstResultLatency.record(millis);
+    }
+
+    /**
+     * @param millis time the loading state has been shown
+     */
+    public void recordLoadingDuration(long millis) {
+        mLoadingDuration.record(millis);
+    }
+
+    /**
+     * @param from state shown before, <code>ViewStateMachine.STATE_NONE</code> if none
+     * @param to   one of <code>STATE_PROGRESS</code>, <code>STATE_EMPTY</code> or
+     *             <code>STATE_ITEMS</code>
+     */
+    public void recordTransition(int from, int to) {
+        mTransitions.incrementAndGet(to);
+        if (from == STATE_EMPTY && to == STATE_ITEMS) {
+            mEmptyBeforeItems.incrementAndGet();
+        }
+    }
+
+    /**
+     * records a replacement of the adapter attached to the underlying RecyclerView
+     */
+    public void recordAdapterSwap() {
+        mAdapterSwaps.incrementAndGet();
+    }
+
+    /**
+     * @return copy of the current values
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(mTag, mFirstResultLatency.snapshot(), mLoadingDuration.snapshot(),
+                new long[]{mTransitions.get(STATE_PROGRESS), mTransitions.get(STATE_EMPTY),
+                        mTransitions.get(STATE_ITEMS)},
+                mEmptyBeforeItems.get(), mAdapterSwaps.get());
+    }
+
+    /**
+     * immutable copy of a {@link ComponentMetrics}
+     */
+    public static final class Snapshot {
+        private final String tag;
+        private final Histogram.Snapshot firstResultLatency;
+        private final Histogram.Snapshot loadingDuration;
+        private final long[] transitions;
+        private final long emptyBeforeItems;
+        private final long adapterSwaps;
+
+        Snapshot(String tag, Histogram.Snapshot firstResultLatency, Histogram.Snapshot loadingDuration,
+                 long[] transitions, long emptyBeforeItems, long adapterSwaps) {
+            this.tag = tag;
+            this.firstResultLatency = firstResultLatency;
+            this.loadingDuration = loadingDuration;
+            this.transitions = transitions;
+            this.emptyBeforeItems = emptyBeforeItems;
+            this.adapterSwaps = adapterSwaps;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        /**
+         * @return milliseconds from subscription to the first item or termination of bound streams
+         */
+        public Histogram.Snapshot getFirstResultLatency() {
+            return firstResultLatency;
+        }
+
+        /**
+         * @return milliseconds the loading state has been shown
+         */
+        public Histogram.Snapshot getLoadingDuration() {
+            return loadingDuration;
+        }
+
+        /**
+         * @param state one of <code>STATE_PROGRESS</code>, <code>STATE_EMPTY</code> or
+         *              <code>STATE_ITEMS</code>
+         * @return number of transitions to <code>state</code>
+         */
+        public long getTransitionCount(int state) {
+            return transitions[state];
+        }
+
+        /**
+         * @return number of times the empty state has been replaced by items
+         */
+        public long getEmptyBeforeItemsCount() {
+            return emptyBeforeItems;
+        }
+
+        /**
+         * @return number of adapter replacements on the underlying RecyclerView
+         */
+        public long getAdapterSwapCount() {
+            return adapterSwaps;
+        }
+    }
+}
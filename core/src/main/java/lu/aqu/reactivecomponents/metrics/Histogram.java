@@ -0,0 +1,147 @@
+package lu.aqu.reactivecomponents.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations in milliseconds with fixed, exponentially growing buckets.<br>
+ * Bucket <code>i</code> counts values in <code>(2^(i-1), 2^i]</code> ms, the first one values up
+ * to 1 ms and the last one everything above {@link #MAX_BOUNDED_MILLIS}. Recording a value does
+ * not allocate, {@link #snapshot()} copies the buckets for polling.
+ */
+public final class Histogram {
+
+    /**
+     * number of buckets, including the overflow bucket
+     */
+    public static final int BUCKET_COUNT = 17;
+    /**
+     * upper bound of the last bounded bucket
+     */
+    public static final long MAX_BOUNDED_MILLIS = 1L << (BUCKET_COUNT - 2);
+
+    private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong mCount = new AtomicLong();
+    private final AtomicLong mSum = new AtomicLong();
+    private final AtomicLong mMax = new AtomicLong();
+
+    /**
+     * @param millis duration to record, negative values are recorded as 0
+     */
+    public void record(long millis) {
+        long value = Math.max(0, millis);
+        mBuckets.incrementAndGet(bucketOf(value));
+        mCount.incrementAndGet();
+        mSum.addAndGet(value);
+
+        for (; ; ) {
+            long max = mMax.get();
+            if (value <= max || mMax.compareAndSet(max, value)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return copy of the current values, buckets recorded concurrently may be off by the
+     * concurrent events
+     */
+    public Snapshot snapshot() {
+        long[] buckets = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = mBuckets.get(i);
+        }
+        return new Snapshot(buckets, mCount.get(), mSum.get(), mMax.get());
+    }
+
+    /**
+     * @param millis non-negative duration
+     * @return index of the bucket counting <code>millis</code>
+     */
+    static int bucketOf(long millis) {
+        if (millis <= 1) {
+            return 0;
+        }
+        return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(millis - 1));
+    }
+
+    /**
+     * @param bucket index of the bucket
+     * @return largest value counted by <code>bucket</code>, <code>Long.MAX_VALUE</code> for the
+     * overflow bucket
+     */
+    public static long upperBoundOf(int bucket) {
+        return bucket < BUCKET_COUNT - 1 ? 1L << bucket : Long.MAX_VALUE;
+    }
+
+    /**
+     * immutable copy of a {@link Histogram}
+     */
+    public static final class Snapshot {
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] buckets, long count, long sum, long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * @return number of recorded values
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return sum of all recorded values in milliseconds
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        /**
+         * @return largest recorded value in milliseconds
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * @param bucket index of the bucket, see {@link Histogram#upperBoundOf(int)}
+         * @return number of values recorded in <code>bucket</code>
+         */
+        public long getBucketCount(int bucket) {
+            return buckets[bucket];
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return upper bound of the bucket containing <code>percentile</code>, capped at
+         * {@link #getMax()}; 0 if nothing has been recorded
+         */
+        public long getPercentile(double percentile) {
+            long total = 0;
+            for (long bucketCount : buckets) {
+                total += bucketCount;
+            }
+            if (total == 0) {
+                return 0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(total * percentile / 100d));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min(upperBoundOf(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
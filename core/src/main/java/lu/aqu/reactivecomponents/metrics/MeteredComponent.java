@@ -0,0 +1,16 @@
+package lu.aqu.reactivecomponents.metrics;
+
+import android.support.annotation.Nullable;
+
+/**
+ * Implemented by components which report their metrics under a tag of their own, e.g. to tell
+ * several lists of the same screen apart. Other components are tracked by class name.
+ */
+public interface MeteredComponent {
+
+    /**
+     * @return tag the component's metrics are recorded under, <code>null</code> for the class name
+     */
+    @Nullable
+    String getMetricsTag();
+}
@@ -0,0 +1,93 @@
+package lu.aqu.reactivecomponents.metrics;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lu.aqu.reactivecomponents.ReactiveComponent;
+
+/**
+ * Opt-in registry of {@link ComponentMetrics}, one per component tag.<br>
+ * While enabled, <code>ReactiveTransformer</code> bindings record the time to the first result and
+ * how long the loading state has been shown, components record their state transitions and adapter
+ * swaps. Components are tagged by class name, unless they implement {@link MeteredComponent}.
+ * <p>
+ * Metrics are disabled by default and cost a single volatile read per event then. Telemetry can
+ * poll {@link #snapshot()} at any interval from any thread.
+ */
+public final class ReactiveMetrics {
+
+    private static final ConcurrentMap<String, ComponentMetrics> METRICS = new ConcurrentHashMap<>();
+    private static volatile boolean sEnabled;
+
+    private ReactiveMetrics() {
+    }
+
+    /**
+     * @param enabled whether metrics are recorded, defaults to false
+     */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * @param component to look up the metrics for
+     * @return metrics of the component's tag, <code>null</code> if metrics are disabled
+     */
+    @Nullable
+    public static ComponentMetrics of(@NonNull ReactiveComponent component) {
+        if (!sEnabled) {
+            return null;
+        }
+
+        String tag = null;
+        if (component instanceof MeteredComponent) {
+            tag = ((MeteredComponent) component).getMetricsTag();
+        }
+        return get(tag != null ? tag : component.getClass().getName());
+    }
+
+    /**
+     * @param tag of the metrics
+     * @return metrics recorded under <code>tag</code>, created if necessary
+     */
+    @NonNull
+    public static ComponentMetrics get(@NonNull String tag) {
+        ComponentMetrics metrics = METRICS.get(tag);
+        if (metrics == null) {
+            ComponentMetrics created = new ComponentMetrics(tag);
+            metrics = METRICS.putIfAbsent(tag, created);
+            if (metrics == null) {
+                metrics = created;
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * @return copies of the metrics of all tags
+     */
+    @NonNull
+    public static List<ComponentMetrics.Snapshot> snapshot() {
+        List<ComponentMetrics.Snapshot> snapshots = new ArrayList<>(METRICS.size());
+        for (ComponentMetrics metrics : METRICS.values()) {
+            snapshots.add(metrics.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * drops the metrics of all tags
+     */
+    public static void clear() {
+        METRICS.clear();
+    }
+}
@@ -0,0 +1,494 @@
+package lu.aqu.reactivecomponents.transformers;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Completable;
+import io.reactivex.CompletableObserver;
+import io.reactivex.CompletableOperator;
+import io.reactivex.CompletableSource;
+import io.reactivex.CompletableTransformer;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableOperator;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.FlowableTransformer;
+import io.reactivex.Maybe;
+import io.reactivex.MaybeObserver;
+import io.reactivex.MaybeOperator;
+import io.reactivex.MaybeSource;
+import io.reactivex.MaybeTransformer;
+import io.reactivex.Observable;
+import io.reactivex.ObservableOperator;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Observer;
+import io.reactivex.Single;
+import io.reactivex.SingleObserver;
+import io.reactivex.SingleOperator;
+import io.reactivex.SingleSource;
+import io.reactivex.SingleTransformer;
+import io.reactivex.disposables.Disposable;
+import lu.aqu.reactivecomponents.ReactiveComponent;
+import lu.aqu.reactivecomponents.metrics.ComponentMetrics;
+
+/**
+ * Transformer binding a {@link ReactiveComponent} to the lifecycle of any RxJava reactive type.<br>
+ * Each type is bound through a single lifted operator, so no conversion to
+ * <code>Observable</code> is required and <code>Flowable</code> backpressure is preserved.
+ * <ul>
+ * <li><code>Observable</code>: loading from subscription until termination</li>
+ * <li><code>Flowable</code>: loading from subscription until the first item or termination</li>
+ * <li><code>Single</code> / <code>Maybe</code> / <code>Completable</code>: loading from
+ * subscription until success, completion or error</li>
+ * </ul>
+ * Disposing or cancelling a subscription releases its loading state as well, every subscription
+ * releases it exactly once.<br>
+ * Results are forwarded downstream before the loading state is released, so work the downstream
+ * posts to the main thread (e.g. filling an adapter) runs before the component finishes loading.<br>
+ * The component itself is always updated on the main thread, see {@link LoadingStateDispatcher}.<br>
+ * While {@link lu.aqu.reactivecomponents.metrics.ReactiveMetrics} are enabled, the time from
+ * subscription to the first item or termination is recorded for each subscription.
+ *
+ * @param <T> item type of the bound stream
+ */
+public final class ComponentTransformer<T> implements ObservableTransformer<T, T>, FlowableTransformer<T, T>,
+        SingleTransformer<T, T>, MaybeTransformer<T, T>, CompletableTransformer {
+
+    private final Operator<T> mOperator;
+
+    ComponentTransformer(@NonNull ReactiveComponent component) {
+        mOperator = new Operator<>(LoadingStateDispatcher.of(component));
+    }
+
+    @Override
+    public ObservableSource<T> apply(@io.reactivex.annotations.NonNull Observable<T> upstream) {
+        return upstream.lift(mOperator);
+    }
+
+    @Override
+    public Publisher<T> apply(@io.reactivex.annotations.NonNull Flowable<T> upstream) {
+        return upstream.lift(mOperator);
+    }
+
+    @Override
+    public SingleSource<T> apply(@io.reactivex.annotations.NonNull Single<T> upstream) {
+        return upstream.lift(mOperator);
+    }
+
+    @Override
+    public MaybeSource<T> apply(@io.reactivex.annotations.NonNull Maybe<T> upstream) {
+        return upstream.lift(mOperator);
+    }
+
+    @Override
+    public CompletableSource apply(@io.reactivex.annotations.NonNull Completable upstream) {
+        return upstream.lift(mOperator);
+    }
+
+    private static final class Operator<T> implements ObservableOperator<T, T>, FlowableOperator<T, T>,
+            SingleOperator<T, T>, MaybeOperator<T, T>, CompletableOperator {
+
+        private final LoadingStateDispatcher dispatcher;
+
+        private Operator(LoadingStateDispatcher dispatcher) {
+            this.dispatcher = dispatcher;
+        }
+
+        @Override
+        public Observer<? super T> apply(Observer<? super T> observer) {
+            return new LoadingObserver<>(dispatcher, observer);
+        }
+
+        @Override
+        public Subscriber<? super T> apply(Subscriber<? super T> subscriber) {
+            return new LoadingSubscriber<>(dispatcher, subscriber);
+        }
+
+        @Override
+        public SingleObserver<? super T> apply(SingleObserver<? super T> observer) {
+            return new LoadingSingleObserver<>(dispatcher, observer);
+        }
+
+        @Override
+        public MaybeObserver<? super T> apply(MaybeObserver<? super T> observer) {
+            return new LoadingMaybeObserver<>(dispatcher, observer);
+        }
+
+        @Override
+        public CompletableObserver apply(CompletableObserver observer) {
+            return new LoadingCompletableObserver(dispatcher, observer);
+        }
+    }
+
+    /**
+     * loading state of a single subscription, starts and finishes at most once
+     */
+    private abstract static class LoadingLease extends AtomicInteger {
+
+        private static final long serialVersionUID = -2741298356208791433L;
+
+        static final int IDLE = 0;
+        static final int LOADING = 1;
+        static final int FINISHED = 2;
+
+        private final LoadingStateDispatcher dispatcher;
+        @Nullable
+        private final ComponentMetrics metrics;
+        private long startMillis = -1;
+        private volatile int terminalReason = -1;
+
+        LoadingLease(LoadingStateDispatcher dispatcher) {
+            this.dispatcher = dispatcher;
+            this.metrics = dispatcher.getMetrics();
+        }
+
+        final void start() {
+            if (compareAndSet(IDLE, LOADING)) {
+                if (metrics != null) {
+                    startMillis = dispatcher.uptimeMillis();
+                }
+                dispatcher.acquire();
+            }
+        }
+
+        /**
+         * records the time to the first result, called with the serialized signals of the stream
+         */
+        final void firstResult() {
+            if (startMillis >= 0) {
+                metrics.recordFirstResult(dispatcher.uptimeMillis() - startMillis);
+                startMillis = -1;
+            }
+        }
+
+        /**
+         * @param reason how the loading action has ended, see {@link LoadingCounter}
+         */
+        final void finish(int reason) {
+            if (compareAndSet(LOADING, FINISHED)) {
+                dispatcher.release(reason);
+            }
+        }
+
+        /**
+         * marks the terminal signal being forwarded downstream, the loading state is released with
+         * <code>reason</code> afterwards, even if the downstream disposes while handling it
+         *
+         * @param reason how the loading action has ended, see {@link LoadingCounter}
+         */
+        final void terminating(int reason) {
+            terminalReason = reason;
+        }
+
+        /**
+         * releases the loading state of a disposed or cancelled subscription
+         */
+        final void disposed() {
+            int reason = terminalReason;
+            finish(reason >= 0 ? reason : LoadingCounter.RELEASE_DISPOSED);
+        }
+    }
+
+    private static final class LoadingObserver<T> extends LoadingLease implements Observer<T>, Disposable {
+
+        private static final long serialVersionUID = 6312954874381067230L;
+
+        private final Observer<? super T> downstream;
+        private Disposable upstream;
+
+        LoadingObserver(LoadingStateDispatcher dispatcher, Observer<? super T> downstream) {
+            super(dispatcher);
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            start();
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T t) {
+            firstResult();
+            downstream.onNext(t);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            terminating(LoadingCounter.RELEASE_ERROR);
+            try {
+                downstream.onError(e);
+            } finally {
+                finish(LoadingCounter.RELEASE_ERROR);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            firstResult();
+            terminating(LoadingCounter.RELEASE_COMPLETE);
+            try {
+                downstream.onComplete();
+            } finally {
+                finish(LoadingCounter.RELEASE_COMPLETE);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed();
+            upstream.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return upstream.isDisposed();
+        }
+    }
+
+    private static final class LoadingSubscriber<T> extends LoadingLease implements FlowableSubscriber<T>, Subscription {
+
+        private static final long serialVersionUID = -8177406623517298342L;
+
+        private final Subscriber<? super T> downstream;
+        private Subscription upstream;
+
+        LoadingSubscriber(LoadingStateDispatcher dispatcher, Subscriber<? super T> downstream) {
+            super(dispatcher);
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(@NonNull Subscription s) {
+            upstream = s;
+            start();
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (get() != LOADING) {
+                downstream.onNext(t);
+                return;
+            }
+
+            // the first batch has arrived, further items are streamed without loading state
+            firstResult();
+            terminating(LoadingCounter.RELEASE_COMPLETE);
+            try {
+                downstream.onNext(t);
+            } finally {
+                finish(LoadingCounter.RELEASE_COMPLETE);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            terminating(LoadingCounter.RELEASE_ERROR);
+            try {
+                downstream.onError(t);
+            } finally {
+                finish(LoadingCounter.RELEASE_ERROR);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            firstResult();
+            terminating(LoadingCounter.RELEASE_COMPLETE);
+            try {
+                downstream.onComplete();
+            } finally {
+                finish(LoadingCounter.RELEASE_COMPLETE);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            disposed();
+            upstream.cancel();
+        }
+    }
+
+    private static final class LoadingSingleObserver<T> extends LoadingLease implements SingleObserver<T>, Disposable {
+
+        private static final long serialVersionUID = 4490658253719530214L;
+
+        private final SingleObserver<? super T> downstream;
+        private Disposable upstream;
+
+        LoadingSingleObserver(LoadingStateDispatcher dispatcher,
+                              SingleObserver<? super T> downstream) {
+            super(dispatcher);
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            start();
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onSuccess(T t) {
+            firstResult();
+            terminating(LoadingCounter.RELEASE_COMPLETE);
+            try {
+                downstream.onSuccess(t);
+            } finally {
+                finish(LoadingCounter.RELEASE_COMPLETE);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            terminating(LoadingCounter.RELEASE_ERROR);
+            try {
+                downstream.onError(e);
+            } finally {
+                finish(LoadingCounter.RELEASE_ERROR);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed();
+            upstream.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return upstream.isDisposed();
+        }
+    }
+
+    private static final class LoadingMaybeObserver<T> extends LoadingLease implements MaybeObserver<T>, Disposable {
+
+        private static final long serialVersionUID = -1532842919730866711L;
+
+        private final MaybeObserver<? super T> downstream;
+        private Disposable upstream;
+
+        LoadingMaybeObserver(LoadingStateDispatcher dispatcher,
+                             MaybeObserver<? super T> downstream) {
+            super(dispatcher);
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            start();
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onSuccess(T t) {
+            firstResult();
+            terminating(LoadingCounter.RELEASE_COMPLETE);
+            try {
+                downstream.onSuccess(t);
+            } finally {
+                finish(LoadingCounter.RELEASE_COMPLETE);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            terminating(LoadingCounter.RELEASE_ERROR);
+            try {
+                downstream.onError(e);
+            } finally {
+                finish(LoadingCounter.RELEASE_ERROR);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            firstResult();
+            terminating(LoadingCounter.RELEASE_COMPLETE);
+            try {
+                downstream.onComplete();
+            } finally {
+                finish(LoadingCounter.RELEASE_COMPLETE);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed();
+            upstream.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return upstream.isDisposed();
+        }
+    }
+
+    private static final class LoadingCompletableObserver extends LoadingLease implements CompletableObserver, Disposable {
+
+        private static final long serialVersionUID = 7725413860297141592L;
+
+        private final CompletableObserver downstream;
+        private Disposable upstream;
+
+        LoadingCompletableObserver(LoadingStateDispatcher dispatcher,
+                                   CompletableObserver downstream) {
+            super(dispatcher);
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            start();
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            terminating(LoadingCounter.RELEASE_ERROR);
+            try {
+                downstream.onError(e);
+            } finally {
+                finish(LoadingCounter.RELEASE_ERROR);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            firstResult();
+            terminating(LoadingCounter.RELEASE_COMPLETE);
+            try {
+                downstream.onComplete();
+            } finally {
+                finish(LoadingCounter.RELEASE_COMPLETE);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed();
+            upstream.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return upstream.isDisposed();
+        }
+    }
+}
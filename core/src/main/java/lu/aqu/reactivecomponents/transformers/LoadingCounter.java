@@ -0,0 +1,76 @@
+package lu.aqu.reactivecomponents.transformers;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import lu.aqu.reactivecomponents.ReactiveComponent;
+
+/**
+ * Counts the loading actions currently in flight for a single {@link ReactiveComponent}.<br>
+ * Only the 0 &rarr; 1 and 1 &rarr; 0 transitions are reported, so concurrent bindings to the
+ * same component show the loading state once and hide it after the last one has finished.<br>
+ * Additionally keeps track of how the released loading actions have ended.
+ */
+final class LoadingCounter {
+
+    /**
+     * the loading action delivered its result (completion, success or a Flowable's first item)
+     */
+    static final int RELEASE_COMPLETE = 0;
+    /**
+     * the loading action terminated with an error
+     */
+    static final int RELEASE_ERROR = 1;
+    /**
+     * the loading action was disposed / cancelled before delivering a result
+     */
+    static final int RELEASE_DISPOSED = 2;
+
+    private final AtomicInteger mInFlight = new AtomicInteger();
+    private final AtomicLongArray mReleases = new AtomicLongArray(3);
+
+    /**
+     * registers a loading action
+     *
+     * @return true if this is the first loading action in flight
+     */
+    boolean acquire() {
+        return mInFlight.getAndIncrement() == 0;
+    }
+
+    /**
+     * unregisters a loading action, never decrements below zero
+     *
+     * @param reason one of <code>RELEASE_COMPLETE</code>, <code>RELEASE_ERROR</code> or
+     *               <code>RELEASE_DISPOSED</code>
+     * @return true if this was the last loading action in flight
+     */
+    boolean release(int reason) {
+        for (; ; ) {
+            int current = mInFlight.get();
+            if (current == 0) {
+                return false;
+            }
+            if (mInFlight.compareAndSet(current, current - 1)) {
+                mReleases.incrementAndGet(reason);
+                return current == 1;
+            }
+        }
+    }
+
+    /**
+     * @return true if at least one loading action is in flight
+     */
+    boolean isLoading() {
+        return mInFlight.get() > 0;
+    }
+
+    /**
+     * @param reason one of <code>RELEASE_COMPLETE</code>, <code>RELEASE_ERROR</code> or
+     *               <code>RELEASE_DISPOSED</code>
+     * @return number of loading actions released for <code>reason</code>
+     */
+    long getReleaseCount(int reason) {
+        return mReleases.get(reason);
+    }
+}
@@ -0,0 +1,218 @@
+package lu.aqu.reactivecomponents.transformers;
+
+import android.support.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import lu.aqu.reactivecomponents.MainThread;
+import lu.aqu.reactivecomponents.ReactiveComponent;
+import lu.aqu.reactivecomponents.metrics.ComponentMetrics;
+import lu.aqu.reactivecomponents.metrics.ReactiveMetrics;
+
+/**
+ * Hands the loading state of a {@link ReactiveComponent} over to the main thread.<br>
+ * Loading actions may start and finish on any thread; the component is only invoked on the main
+ * thread and only with the state in effect when the posted dispatch runs. Changes arriving before
+ * that are coalesced, so a fast start / finish pair never reaches the component. Finishing moves the
+ * pending dispatch to the end of the main thread's queue, behind the results posted by the finishing
+ * thread.
+ * <p>
+ * Optionally the loading state is only shown once loading has lasted for a show delay, and stays
+ * visible for a minimum duration once shown. Loads finishing within the show delay never reach the
+ * component, and a load finishing right after the state has been shown does not make it flash.
+ * Both are scheduled on the main thread with a single pre-allocated runnable.
+ */
+final class LoadingStateDispatcher implements Runnable {
+
+    private static final Map<ReactiveComponent, LoadingStateDispatcher> DISPATCHERS = new WeakHashMap<>();
+
+    private final WeakReference<ReactiveComponent> mComponent;
+    private final LoadingCounter mCounter = new LoadingCounter();
+    private final MainThread mMainThread;
+    private final AtomicBoolean mScheduled = new AtomicBoolean();
+
+    private volatile long mShowDelay;
+    private volatile long mMinVisible;
+
+    /**
+     * re-evaluates the state once the show delay or minimum visible duration has passed
+     */
+    private final Runnable mDeferred = new Runnable() {
+        @Override
+        public void run() {
+            mDeferredPending = false;
+            dispatch();
+        }
+    };
+
+    // only accessed on the main thread
+    private boolean mDeferredPending;
+    private long mLoadingSince = -1;
+    // -1 while the loading state is hidden
+    private long mShownSince = -1;
+
+    LoadingStateDispatcher(ReactiveComponent component, MainThread mainThread) {
+        mComponent = new WeakReference<>(component);
+        mMainThread = mainThread;
+    }
+
+    /**
+     * @param component to look up the dispatcher for
+     * @return the dispatcher shared by all bindings of <code>component</code>
+     */
+    static LoadingStateDispatcher of(ReactiveComponent component) {
+        synchronized (DISPATCHERS) {
+            LoadingStateDispatcher dispatcher = DISPATCHERS.get(component);
+            if (dispatcher == null) {
+                dispatcher = new LoadingStateDispatcher(component, ReactiveTransformer.getMainThread());
+                dispatcher.setDelays(ReactiveTransformer.getDefaultShowDelay(),
+                        ReactiveTransformer.getDefaultMinVisibleDuration());
+                DISPATCHERS.put(component, dispatcher);
+            }
+            return dispatcher;
+        }
+    }
+
+    /**
+     * registers a loading action, may be called from any thread
+     */
+    void acquire() {
+        if (mCounter.acquire()) {
+            schedule();
+        }
+    }
+
+    /**
+     * unregisters a loading action, may be called from any thread
+     *
+     * @param reason how the loading action has ended, see {@link LoadingCounter}
+     */
+    void release(int reason) {
+        if (mCounter.release(reason)) {
+            reschedule();
+        }
+    }
+
+    LoadingCounter getCounter() {
+        return mCounter;
+    }
+
+    /**
+     * @return metrics of the component, <code>null</code> if metrics are disabled
+     */
+    @Nullable
+    ComponentMetrics getMetrics() {
+        ReactiveComponent component = mComponent.get();
+        return component != null ? ReactiveMetrics.of(component) : null;
+    }
+
+    /**
+     * @return current time of the main thread's clock
+     */
+    long uptimeMillis() {
+        return mMainThread.uptimeMillis();
+    }
+
+    /**
+     * @param showDelayMillis  time a loading action has to last before the loading state is shown
+     * @param minVisibleMillis minimum time the loading state is shown
+     */
+    void setDelays(long showDelayMillis, long minVisibleMillis) {
+        mShowDelay = Math.max(0, showDelayMillis);
+        mMinVisible = Math.max(0, minVisibleMillis);
+    }
+
+    private void schedule() {
+        // at most one pending dispatch, it will pick up the latest state
+        if (mScheduled.compareAndSet(false, true)) {
+            mMainThread.post(this);
+        }
+    }
+
+    /**
+     * moves the pending dispatch behind everything the calling thread has posted so far, e.g. a
+     * subscriber filling the component's adapter with the result which finished loading
+     */
+    private void reschedule() {
+        mMainThread.removeCallbacks(this);
+        mScheduled.set(true);
+        mMainThread.post(this);
+    }
+
+    @Override
+    public void run() {
+        mScheduled.set(false);
+        dispatch();
+    }
+
+    private void dispatch() {
+        ReactiveComponent component = mComponent.get();
+        if (component == null) {
+            cancelDeferred();
+            return;
+        }
+
+        boolean loading = mCounter.isLoading();
+        boolean shown = component.isLoading();
+        long now = mMainThread.uptimeMillis();
+
+        if (loading == shown) {
+            // nothing left to apply, a pending show or hide is obsolete
+            cancelDeferred();
+            mLoadingSince = loading ? mLoadingSince : -1;
+            if (!shown) {
+                mShownSince = -1;
+            } else if (mShownSince < 0) {
+                // shown by the component itself, e.g. auto shown progress
+                mShownSince = now;
+            }
+            return;
+        }
+
+        if (loading) {
+            if (mLoadingSince < 0) {
+                mLoadingSince = now;
+            }
+            long remaining = mLoadingSince + mShowDelay - now;
+            if (remaining > 0) {
+                defer(remaining);
+                return;
+            }
+            cancelDeferred();
+            mShownSince = now;
+            component.onLoadingStart();
+        } else {
+            mLoadingSince = -1;
+            // unknown if the component was loading before this dispatcher has seen it
+            boolean known = mShownSince >= 0;
+            long remaining = known ? mShownSince + mMinVisible - now : 0;
+            if (remaining > 0) {
+                defer(remaining);
+                return;
+            }
+            cancelDeferred();
+            ComponentMetrics metrics = ReactiveMetrics.of(component);
+            if (metrics != null && known) {
+                metrics.recordLoadingDuration(now - mShownSince);
+            }
+            mShownSince = -1;
+            component.onLoadingFinished();
+        }
+    }
+
+    private void defer(long delayMillis) {
+        cancelDeferred();
+        mDeferredPending = true;
+        mMainThread.postDelayed(mDeferred, delayMillis);
+    }
+
+    private void cancelDeferred() {
+        if (mDeferredPending) {
+            mDeferredPending = false;
+            mMainThread.removeCallbacks(mDeferred);
+        }
+    }
+}
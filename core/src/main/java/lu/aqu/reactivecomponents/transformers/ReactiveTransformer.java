@@ -0,0 +1,98 @@
+package lu.aqu.reactivecomponents.transformers;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import lu.aqu.reactivecomponents.LooperMainThread;
+import lu.aqu.reactivecomponents.MainThread;
+import lu.aqu.reactivecomponents.ReactiveComponent;
+
+public class ReactiveTransformer {
+
+    @Nullable
+    private static volatile MainThread sMainThread;
+    private static volatile long sShowDelay;
+    private static volatile long sMinVisibleDuration;
+
+    /**
+     * Binds a reactive component to an RxJava reactive type's lifecycle.<br>
+     * The component will be set to loading in the stream's <code>onSubscribe</code> and
+     * will finish loading on termination (<code>Flowable</code>s already after their first item).<br>
+     * Bindings to the same component share an in-flight counter, so the component is only notified
+     * when the first loading action starts and when the last one finishes.<br>
+     * State changes are posted to the main thread, changes arriving before the post has run are
+     * coalesced into the final state.
+     * <p>
+     * The returned transformer can be passed to <code>compose</code> of <code>Observable</code>,
+     * <code>Flowable</code>, <code>Single</code>, <code>Maybe</code> and <code>Completable</code>.
+     *
+     * @param component to be bound to the stream lifecycle
+     * @param <T>       item type of the stream
+     * @return ComponentTransformer, which changes the ReactiveComponents loading state
+     */
+    public static <T> ComponentTransformer<T> bind(@NonNull final ReactiveComponent component) {
+        return new ComponentTransformer<>(component);
+    }
+
+    /**
+     * sets when a component shows its loading state. Loading actions finishing within
+     * <code>showDelayMillis</code> are never shown, and a shown loading state stays visible for at
+     * least <code>minVisibleMillis</code>, so fast requests do not make the component flash.<br>
+     * Both default to 0, i.e. the loading state is shown for exactly as long as loading lasts.
+     *
+     * @param component        to set the delays for
+     * @param showDelayMillis  time a loading action has to last before the loading state is shown
+     * @param minVisibleMillis minimum time the loading state is shown
+     */
+    public static void setLoadingDelays(@NonNull ReactiveComponent component, long showDelayMillis,
+                                        long minVisibleMillis) {
+        LoadingStateDispatcher.of(component).setDelays(showDelayMillis, minVisibleMillis);
+    }
+
+    /**
+     * like {@link #setLoadingDelays(ReactiveComponent, long, long)} for all components which have
+     * not been bound yet
+     *
+     * @param showDelayMillis  time a loading action has to last before the loading state is shown
+     * @param minVisibleMillis minimum time the loading state is shown
+     */
+    public static void setDefaultLoadingDelays(long showDelayMillis, long minVisibleMillis) {
+        sShowDelay = showDelayMillis;
+        sMinVisibleDuration = minVisibleMillis;
+    }
+
+    static long getDefaultShowDelay() {
+        return sShowDelay;
+    }
+
+    static long getDefaultMinVisibleDuration() {
+        return sMinVisibleDuration;
+    }
+
+    /**
+     * replaces the main thread components are updated on, e.g. with a fake looper in JVM tests.
+     * Only affects components which have not been bound yet.
+     *
+     * @param mainThread to post state changes to, <code>null</code> to restore the main looper
+     */
+    public static void setMainThread(@Nullable MainThread mainThread) {
+        sMainThread = mainThread;
+    }
+
+    /**
+     * @return the main thread components are updated on
+     */
+    public static MainThread getMainThread() {
+        MainThread mainThread = sMainThread;
+        if (mainThread == null) {
+            synchronized (ReactiveTransformer.class) {
+                mainThread = sMainThread;
+                if (mainThread == null) {
+                    mainThread = new LooperMainThread();
+                    sMainThread = mainThread;
+                }
+            }
+        }
+        return mainThread;
+    }
+}
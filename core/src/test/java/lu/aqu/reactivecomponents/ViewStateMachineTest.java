@@ -0,0 +1,51 @@
+package lu.aqu.reactivecomponents;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ViewStateMachineTest {
+
+    @Test
+    public void testInitialState() {
+        ViewStateMachine stateMachine = new ViewStateMachine();
+        assertEquals(ViewStateMachine.STATE_NONE, stateMachine.getState());
+        assertEquals(ViewStateMachine.STATE_NONE, stateMachine.getPreviousState());
+        assertFalse(stateMachine.isLoading());
+    }
+
+    @Test
+    public void testTransitions() {
+        ViewStateMachine stateMachine = new ViewStateMachine();
+
+        assertTrue(stateMachine.startLoading());
+        assertTrue(stateMachine.isLoading());
+
+        assertTrue(stateMachine.finishLoading(0));
+        assertEquals(ViewStateMachine.STATE_EMPTY, stateMachine.getState());
+        assertEquals(ViewStateMachine.STATE_PROGRESS, stateMachine.getPreviousState());
+
+        assertTrue(stateMachine.finishLoading(3));
+        assertEquals(ViewStateMachine.STATE_ITEMS, stateMachine.getState());
+        assertEquals(ViewStateMachine.STATE_EMPTY, stateMachine.getPreviousState());
+    }
+
+    @Test
+    public void testNoOpTransitionsSuppressed() {
+        ViewStateMachine stateMachine = new ViewStateMachine();
+        stateMachine.startLoading();
+
+        assertFalse(stateMachine.startLoading());
+        assertEquals(ViewStateMachine.STATE_NONE, stateMachine.getPreviousState());
+
+        stateMachine.finishLoading(5);
+        assertFalse(stateMachine.finishLoading(10));
+        assertFalse(stateMachine.moveTo(ViewStateMachine.STATE_ITEMS));
+        assertEquals(ViewStateMachine.STATE_PROGRESS, stateMachine.getPreviousState());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownState() {
+        new ViewStateMachine().moveTo(3);
+    }
+}
@@ -0,0 +1,99 @@
+package lu.aqu.reactivecomponents.metrics;
+
+import org.junit.After;
+import org.junit.Test;
+
+import lu.aqu.reactivecomponents.StubComponent;
+
+import static org.junit.Assert.*;
+
+public class ReactiveMetricsTest {
+
+    @After
+    public void tearDown() {
+        ReactiveMetrics.setEnabled(false);
+        ReactiveMetrics.clear();
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        assertNull(ReactiveMetrics.of(new StubComponent()));
+    }
+
+    @Test
+    public void testComponentsTaggedByClassName() {
+        ReactiveMetrics.setEnabled(true);
+
+        ComponentMetrics metrics = ReactiveMetrics.of(new StubComponent());
+        assertSame(metrics, ReactiveMetrics.of(new StubComponent()));
+        assertEquals(StubComponent.class.getName(), metrics.getTag());
+    }
+
+    @Test
+    public void testMeteredComponentTag() {
+        ReactiveMetrics.setEnabled(true);
+
+        ComponentMetrics metrics = ReactiveMetrics.of(new TaggedComponent("feed"));
+        assertSame(ReactiveMetrics.get("feed"), metrics);
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        assertEquals(0, Histogram.bucketOf(0));
+        assertEquals(0, Histogram.bucketOf(1));
+        assertEquals(1, Histogram.bucketOf(2));
+        assertEquals(2, Histogram.bucketOf(3));
+        assertEquals(2, Histogram.bucketOf(4));
+        assertEquals(10, Histogram.bucketOf(1000));
+        assertEquals(Histogram.BUCKET_COUNT - 1, Histogram.bucketOf(Histogram.MAX_BOUNDED_MILLIS + 1));
+        assertEquals(Histogram.BUCKET_COUNT - 1, Histogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testHistogramSnapshot() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(5050, snapshot.getSum());
+        assertEquals(100, snapshot.getMax());
+        assertEquals(64, snapshot.getPercentile(50));
+        assertEquals(100, snapshot.getPercentile(99));
+
+        histogram.record(1);
+        assertEquals(100, snapshot.getCount());
+    }
+
+    @Test
+    public void testTransitions() {
+        ComponentMetrics metrics = ReactiveMetrics.get("list");
+        metrics.recordTransition(-1, ComponentMetrics.STATE_PROGRESS);
+        metrics.recordTransition(ComponentMetrics.STATE_PROGRESS, ComponentMetrics.STATE_EMPTY);
+        metrics.recordTransition(ComponentMetrics.STATE_EMPTY, ComponentMetrics.STATE_ITEMS);
+        metrics.recordAdapterSwap();
+
+        ComponentMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getTransitionCount(ComponentMetrics.STATE_PROGRESS));
+        assertEquals(1, snapshot.getTransitionCount(ComponentMetrics.STATE_EMPTY));
+        assertEquals(1, snapshot.getTransitionCount(ComponentMetrics.STATE_ITEMS));
+        assertEquals(1, snapshot.getEmptyBeforeItemsCount());
+        assertEquals(1, snapshot.getAdapterSwapCount());
+        assertEquals(1, ReactiveMetrics.snapshot().size());
+    }
+
+    private static class TaggedComponent extends StubComponent implements MeteredComponent {
+        private final String tag;
+
+        TaggedComponent(String tag) {
+            this.tag = tag;
+        }
+
+        @Override
+        public String getMetricsTag() {
+            return tag;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package lu.aqu.reactivecomponents.transformers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.SingleSubject;
+import lu.aqu.reactivecomponents.FakeMainThread;
+import lu.aqu.reactivecomponents.StubComponent;
+
+import static org.junit.Assert.*;
+
+public class ComponentTransformerTest {
+
+    private final FakeMainThread mainThread = new FakeMainThread();
+    private final StubComponent component = new StubComponent();
+
+    @Before
+    public void setUp() {
+        ReactiveTransformer.setMainThread(mainThread);
+    }
+
+    @After
+    public void tearDown() {
+        ReactiveTransformer.setMainThread(null);
+    }
+
+    @Test
+    public void testDisposeReleasesLoadingState() {
+        PublishSubject<String> subject = PublishSubject.create();
+        Disposable disposable = subject.compose(ReactiveTransformer.<String>bind(component)).subscribe();
+
+        mainThread.drain();
+        assertTrue(component.isLoading());
+
+        disposable.dispose();
+        disposable.dispose();
+        mainThread.drain();
+        assertFalse(component.isLoading());
+        assertEquals(1, counter().getReleaseCount(LoadingCounter.RELEASE_DISPOSED));
+        assertEquals(0, counter().getReleaseCount(LoadingCounter.RELEASE_COMPLETE));
+    }
+
+    @Test
+    public void testErrorReleasesOnce() {
+        PublishSubject<String> subject = PublishSubject.create();
+        Disposable disposable = subject.compose(ReactiveTransformer.<String>bind(component))
+                .onErrorReturnItem("")
+                .subscribe();
+
+        subject.onError(new RuntimeException());
+        disposable.dispose();
+
+        assertEquals(1, counter().getReleaseCount(LoadingCounter.RELEASE_ERROR));
+        assertEquals(0, counter().getReleaseCount(LoadingCounter.RELEASE_DISPOSED));
+    }
+
+    @Test
+    public void testFlowableFinishesWithFirstItem() {
+        PublishProcessor<String> processor = PublishProcessor.create();
+        processor.compose(ReactiveTransformer.<String>bind(component)).subscribe();
+
+        mainThread.drain();
+        assertTrue(component.isLoading());
+
+        processor.onNext("first");
+        mainThread.drain();
+        assertFalse(component.isLoading());
+
+        processor.onNext("second");
+        processor.onComplete();
+        assertEquals(1, counter().getReleaseCount(LoadingCounter.RELEASE_COMPLETE));
+    }
+
+    @Test
+    public void testConcurrentBindingsShareLoadingState() {
+        SingleSubject<String> first = SingleSubject.create();
+        SingleSubject<String> second = SingleSubject.create();
+        first.compose(ReactiveTransformer.<String>bind(component)).subscribe();
+        second.compose(ReactiveTransformer.<String>bind(component)).subscribe();
+        mainThread.drain();
+
+        first.onSuccess("first");
+        mainThread.drain();
+        assertTrue(component.isLoading());
+
+        second.onSuccess("second");
+        mainThread.drain();
+        assertFalse(component.isLoading());
+        assertEquals(1, component.starts);
+        assertEquals(1, component.finishes);
+    }
+
+    @Test
+    public void testPostedResultRunsBeforeLoadingFinishes() {
+        final List<String> events = new ArrayList<>();
+        StubComponent component = new StubComponent() {
+            @Override
+            public void onLoadingFinished() {
+                events.add("finished");
+                super.onLoadingFinished();
+            }
+        };
+        // e.g. a ReactiveRecyclerView showing its progress view before the first binding
+        component.setIsLoading(true);
+
+        SingleSubject<String> subject = SingleSubject.create();
+        subject.compose(ReactiveTransformer.<String>bind(component))
+                .subscribe(new Consumer<String>() {
+                    @Override
+                    public void accept(final String result) {
+                        // like ReactiveListAdapter, hand the result over to the main thread
+                        mainThread.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                events.add(result);
+                            }
+                        });
+                    }
+                });
+
+        // the loading start is still pending when the result arrives
+        subject.onSuccess("items");
+        mainThread.drain();
+
+        assertEquals(2, events.size());
+        assertEquals("items", events.get(0));
+        assertEquals("finished", events.get(1));
+    }
+
+    @Test
+    public void testDisposeWhileDeliveringCountsAsComplete() {
+        final SingleSubject<String> subject = SingleSubject.create();
+        final Disposable[] disposable = new Disposable[1];
+        disposable[0] = subject.compose(ReactiveTransformer.<String>bind(component))
+                .subscribe(new Consumer<String>() {
+                    @Override
+                    public void accept(String result) {
+                        disposable[0].dispose();
+                    }
+                });
+
+        subject.onSuccess("result");
+
+        assertEquals(1, counter().getReleaseCount(LoadingCounter.RELEASE_COMPLETE));
+        assertEquals(0, counter().getReleaseCount(LoadingCounter.RELEASE_DISPOSED));
+    }
+
+    private LoadingCounter counter() {
+        return LoadingStateDispatcher.of(component).getCounter();
+    }
+}
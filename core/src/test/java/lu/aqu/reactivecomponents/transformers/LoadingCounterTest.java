@@ -0,0 +1,66 @@
+package lu.aqu.reactivecomponents.transformers;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class LoadingCounterTest {
+
+    @Test
+    public void testOnlyOuterTransitionsReported() {
+        LoadingCounter counter = new LoadingCounter();
+
+        assertTrue(counter.acquire());
+        assertFalse(counter.acquire());
+        assertFalse(counter.acquire());
+        assertTrue(counter.isLoading());
+
+        assertFalse(counter.release(LoadingCounter.RELEASE_COMPLETE));
+        assertFalse(counter.release(LoadingCounter.RELEASE_COMPLETE));
+        assertTrue(counter.release(LoadingCounter.RELEASE_COMPLETE));
+        assertFalse(counter.isLoading());
+    }
+
+    @Test
+    public void testReleaseNeverGoesNegative() {
+        LoadingCounter counter = new LoadingCounter();
+
+        assertFalse(counter.release(LoadingCounter.RELEASE_COMPLETE));
+        assertTrue(counter.acquire());
+        assertTrue(counter.release(LoadingCounter.RELEASE_COMPLETE));
+    }
+
+    @Test
+    public void testConcurrentAcquireRelease() throws Exception {
+        final LoadingCounter counter = new LoadingCounter();
+        final int threads = 8;
+        final int iterations = 10000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < iterations; i++) {
+                            counter.acquire();
+                            counter.release(LoadingCounter.RELEASE_COMPLETE);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        start.countDown();
+        done.await();
+        assertFalse(counter.isLoading());
+    }
+}
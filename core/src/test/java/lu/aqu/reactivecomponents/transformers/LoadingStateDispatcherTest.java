@@ -0,0 +1,180 @@
+package lu.aqu.reactivecomponents.transformers;
+
+import org.junit.Test;
+
+import lu.aqu.reactivecomponents.FakeMainThread;
+import lu.aqu.reactivecomponents.StubComponent;
+import lu.aqu.reactivecomponents.metrics.ComponentMetrics;
+import lu.aqu.reactivecomponents.metrics.ReactiveMetrics;
+
+import static org.junit.Assert.*;
+
+public class LoadingStateDispatcherTest {
+
+    private final FakeMainThread mainThread = new FakeMainThread();
+    private final StubComponent component = new StubComponent();
+    private final LoadingStateDispatcher dispatcher = new LoadingStateDispatcher(component, mainThread);
+
+    @Test
+    public void testStateAppliedOnMainThread() {
+        dispatcher.acquire();
+        assertFalse(component.isLoading());
+
+        mainThread.drain();
+        assertTrue(component.isLoading());
+
+        dispatcher.release(LoadingCounter.RELEASE_COMPLETE);
+        mainThread.drain();
+        assertFalse(component.isLoading());
+        assertEquals(1, component.starts);
+        assertEquals(1, component.finishes);
+    }
+
+    @Test
+    public void testStartFinishPairCoalesced() {
+        dispatcher.acquire();
+        dispatcher.release(LoadingCounter.RELEASE_COMPLETE);
+        dispatcher.acquire();
+        dispatcher.release(LoadingCounter.RELEASE_COMPLETE);
+
+        assertEquals(1, mainThread.pending());
+        mainThread.drain();
+        assertEquals(0, component.starts);
+        assertEquals(0, component.finishes);
+    }
+
+    @Test
+    public void testFinalStateWins() {
+        dispatcher.acquire();
+        dispatcher.release(LoadingCounter.RELEASE_COMPLETE);
+        dispatcher.acquire();
+
+        mainThread.drain();
+        assertTrue(component.isLoading());
+        assertEquals(1, component.starts);
+    }
+
+    @Test
+    public void testFastLoadWithinShowDelayNeverShown() {
+        dispatcher.setDelays(100, 500);
+
+        dispatcher.acquire();
+        mainThread.advance(50);
+        assertFalse(component.isLoading());
+
+        dispatcher.release(LoadingCounter.RELEASE_COMPLETE);
+        mainThread.advance(1000);
+        assertEquals(0, component.starts);
+        assertEquals(0, component.finishes);
+    }
+
+    @Test
+    public void testShownAfterShowDelay() {
+        dispatcher.setDelays(100, 0);
+
+        dispatcher.acquire();
+        mainThread.advance(99);
+        assertFalse(component.isLoading());
+
+        mainThread.advance(1);
+        assertTrue(component.isLoading());
+        assertEquals(1, component.starts);
+    }
+
+    @Test
+    public void testShownForMinimumDuration() {
+        dispatcher.setDelays(100, 500);
+
+        dispatcher.acquire();
+        mainThread.advance(150);
+        assertTrue(component.isLoading());
+
+        dispatcher.release(LoadingCounter.RELEASE_COMPLETE);
+        mainThread.advance(449);
+        assertTrue(component.isLoading());
+
+        mainThread.advance(1);
+        assertFalse(component.isLoading());
+        assertEquals(1, component.starts);
+        assertEquals(1, component.finishes);
+    }
+
+    @Test
+    public void testReacquireWhileHidePendingKeepsState() {
+        dispatcher.setDelays(0, 500);
+
+        dispatcher.acquire();
+        mainThread.drain();
+        dispatcher.release(LoadingCounter.RELEASE_COMPLETE);
+        mainThread.advance(100);
+        dispatcher.acquire();
+        mainThread.advance(1000);
+
+        assertTrue(component.isLoading());
+        assertEquals(1, component.starts);
+        assertEquals(0, component.finishes);
+    }
+
+    @Test
+    public void testLoadingDurationRecorded() {
+        ReactiveMetrics.setEnabled(true);
+        try {
+            dispatcher.acquire();
+            mainThread.drain();
+            mainThread.advance(300);
+            dispatcher.release(LoadingCounter.RELEASE_COMPLETE);
+            mainThread.drain();
+
+            ComponentMetrics.Snapshot snapshot = ReactiveMetrics.of(component).snapshot();
+            assertEquals(1, snapshot.getLoadingDuration().getCount());
+            assertEquals(300, snapshot.getLoadingDuration().getMax());
+        } finally {
+            ReactiveMetrics.setEnabled(false);
+            ReactiveMetrics.clear();
+        }
+    }
+
+    @Test
+    public void testLoadingDurationOfAlreadyLoadingComponent() {
+        ReactiveMetrics.setEnabled(true);
+        try {
+            mainThread.advance(10000);
+            // e.g. progress shown automatically when the component is created
+            component.setIsLoading(true);
+            dispatcher.acquire();
+            mainThread.drain();
+            mainThread.advance(300);
+            dispatcher.release(LoadingCounter.RELEASE_COMPLETE);
+            mainThread.drain();
+
+            assertFalse(component.isLoading());
+            ComponentMetrics.Snapshot snapshot = ReactiveMetrics.of(component).snapshot();
+            assertEquals(1, snapshot.getLoadingDuration().getCount());
+            assertEquals(300, snapshot.getLoadingDuration().getMax());
+        } finally {
+            ReactiveMetrics.setEnabled(false);
+            ReactiveMetrics.clear();
+        }
+    }
+
+    @Test
+    public void testUnknownLoadingStartNotRecorded() {
+        ReactiveMetrics.setEnabled(true);
+        try {
+            dispatcher.setDelays(0, 500);
+            mainThread.advance(10000);
+            component.setIsLoading(true);
+            // the dispatcher first sees the component when its loading has already finished
+            dispatcher.acquire();
+            dispatcher.release(LoadingCounter.RELEASE_COMPLETE);
+            mainThread.drain();
+
+            assertFalse(component.isLoading());
+            ComponentMetrics.Snapshot snapshot = ReactiveMetrics.of(component).snapshot();
+            assertEquals(0, snapshot.getLoadingDuration().getCount());
+        } finally {
+            ReactiveMetrics.setEnabled(false);
+            ReactiveMetrics.clear();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package lu.aqu.reactivecomponents;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * {@link MainThread} queueing posted runnables until the test drains them.<br>
+ * Delayed runnables are run once the test advances the fake clock past their due time.
+ */
+public class FakeMainThread implements MainThread {
+
+    private final Queue<Runnable> mQueue = new ArrayDeque<>();
+    private final List<Delayed> mDelayed = new ArrayList<>();
+    private long mNow;
+
+    @Override
+    public synchronized void post(Runnable runnable) {
+        mQueue.add(runnable);
+    }
+
+    @Override
+    public synchronized void postDelayed(Runnable runnable, long delayMillis) {
+        mDelayed.add(new Delayed(runnable, mNow + delayMillis));
+    }
+
+    @Override
+    public synchronized void removeCallbacks(Runnable runnable) {
+        Iterator<Runnable> queued = mQueue.iterator();
+        while (queued.hasNext()) {
+            if (queued.next() == runnable) {
+                queued.remove();
+            }
+        }
+
+        Iterator<Delayed> delayed = mDelayed.iterator();
+        while (delayed.hasNext()) {
+            if (delayed.next().runnable == runnable) {
+                delayed.remove();
+            }
+        }
+    }
+
+    @Override
+    public synchronized long uptimeMillis() {
+        return mNow;
+    }
+
+    /**
+     * runs all queued runnables, including those posted while draining
+     *
+     * @return number of runnables run
+     */
+    public int drain() {
+        int count = 0;
+        Runnable runnable;
+        while ((runnable = poll()) != null) {
+            runnable.run();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * advances the fake clock, running delayed runnables as they become due
+     *
+     * @param millis to advance the clock by
+     * @return number of runnables run
+     */
+    public int advance(long millis) {
+        long target;
+        synchronized (this) {
+            target = mNow + millis;
+        }
+
+        int count = drain();
+        Delayed next;
+        while ((next = pollDelayed(target)) != null) {
+            synchronized (this) {
+                mNow = next.time;
+            }
+            next.runnable.run();
+            count += 1 + drain();
+        }
+
+        synchronized (this) {
+            mNow = target;
+        }
+        return count;
+    }
+
+    public synchronized int pending() {
+        return mQueue.size();
+    }
+
+    private synchronized Runnable poll() {
+        return mQueue.poll();
+    }
+
+    /**
+     * @return the earliest delayed runnable due at <code>time</code>
+     */
+    private synchronized Delayed pollDelayed(long time) {
+        Delayed earliest = null;
+        for (Delayed delayed : mDelayed) {
+            if (delayed.time <= time && (earliest == null || delayed.time < earliest.time)) {
+                earliest = delayed;
+            }
+        }
+        mDelayed.remove(earliest);
+        return earliest;
+    }
+
+    private static class Delayed {
+        private final Runnable runnable;
+        private final long time;
+
+        private Delayed(Runnable runnable, long time) {
+            this.runnable = runnable;
+            this.time = time;
+        }
+    }
+}
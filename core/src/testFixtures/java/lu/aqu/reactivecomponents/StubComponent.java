@@ -0,0 +1,33 @@
+package lu.aqu.reactivecomponents;
+
+/**
+ * {@link ReactiveComponent} recording its state changes
+ */
+public class StubComponent implements ReactiveComponent {
+
+    public int starts;
+    public int finishes;
+    private boolean mLoading;
+
+    @Override
+    public void onLoadingStart() {
+        starts++;
+        setIsLoading(true);
+    }
+
+    @Override
+    public void onLoadingFinished() {
+        finishes++;
+        setIsLoading(false);
+    }
+
+    @Override
+    public void setIsLoading(boolean loading) {
+        mLoading = loading;
+    }
+
+    @Override
+    public boolean isLoading() {
+        return mLoading;
+    }
+}
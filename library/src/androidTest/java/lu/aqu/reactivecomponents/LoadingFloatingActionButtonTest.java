@@ -0,0 +1,73 @@
+package lu.aqu.reactivecomponents;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class LoadingFloatingActionButtonTest {
+
+    @Test
+    public void testLoadingState() throws Exception {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                LoadingFloatingActionButton fab = new LoadingFloatingActionButton(getContext());
+                assertFalse(fab.isLoading());
+
+                fab.setIsLoading(true);
+                assertTrue(fab.isLoading());
+                assertFalse(fab.isClickable());
+
+                fab.setIsLoading(false);
+                assertFalse(fab.isLoading());
+                assertTrue(fab.isClickable());
+            }
+        });
+    }
+
+    @Test
+    public void testDisabledWhileLoading() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                LoadingFloatingActionButton fab = new LoadingFloatingActionButton(getContext());
+                fab.setDisabledWhileLoading(true);
+                assertTrue(fab.isEnabled());
+
+                fab.setIsLoading(true);
+                assertTrue(fab.isLoading());
+                assertFalse(fab.isEnabled());
+
+                fab.setIsLoading(false);
+                assertTrue(fab.isEnabled());
+            }
+        });
+    }
+
+    @Test
+    public void testClickableWhileLoading() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                LoadingFloatingActionButton fab = new LoadingFloatingActionButton(getContext());
+                fab.setClickableWhileLoading(true);
+
+                fab.setIsLoading(true);
+                assertTrue(fab.isLoading());
+                assertTrue(fab.isClickable());
+            }
+        });
+    }
+
+    private Context getContext() {
+        Context appContext = InstrumentationRegistry.getTargetContext();
+        appContext.setTheme(R.style.Theme_AppCompat);
+        return appContext;
+    }
+}
@@ -12,8 +12,8 @@ import java.util.Arrays;
 import java.util.List;
 
 import io.reactivex.Observable;
-import io.reactivex.functions.Action;
 import io.reactivex.functions.Consumer;
+import io.reactivex.subjects.PublishSubject;
 import lu.aqu.reactivecomponents.transformers.ReactiveTransformer;
 
 import static org.junit.Assert.*;
@@ -74,19 +74,12 @@ public class ReactiveFloatingActionButtonTest {
         Context appContext = getContext();
 
         final ReactiveFloatingActionButton fab = new ReactiveFloatingActionButton(appContext);
+        PublishSubject<List<String>> subject = PublishSubject.create();
 
-        Observable.just(Arrays.asList("The", "cake", "is", "a", "lie"))
-                .compose(ReactiveTransformer.<List<String>>bind(fab))
-                .doOnTerminate(new Action() {
-                    @Override
-                    public void run() throws Exception {
-                        assertFalse(fab.isLoading());
-                    }
-                })
+        subject.compose(ReactiveTransformer.<List<String>>bind(fab))
                 .subscribe(new Consumer<List<String>>() {
                     @Override
                     public void accept(List<String> strings) throws Exception {
-                        assertTrue(fab.isLoading());
                     }
                 }, new Consumer<Throwable>() {
                     @Override
@@ -94,6 +87,15 @@ public class ReactiveFloatingActionButtonTest {
                         fail();
                     }
                 });
+
+        waitForMainThread();
+        assertTrue(fab.isLoading());
+
+        subject.onNext(Arrays.asList("The", "cake", "is", "a", "lie"));
+        subject.onComplete();
+
+        waitForMainThread();
+        assertFalse(fab.isLoading());
     }
 
     @Test
@@ -101,14 +103,9 @@ public class ReactiveFloatingActionButtonTest {
         Context appContext = getContext();
 
         final ReactiveFloatingActionButton fab = new ReactiveFloatingActionButton(appContext);
-        Observable.just(Arrays.asList("The", "cake", "is", "a", "lie"))
-                .compose(ReactiveTransformer.<List<String>>bind(fab))
-                .doOnTerminate(new Action() {
-                    @Override
-                    public void run() throws Exception {
-                        assertFalse(fab.isLoading());
-                    }
-                })
+        PublishSubject<List<String>> subject = PublishSubject.create();
+
+        subject.compose(ReactiveTransformer.<List<String>>bind(fab))
                 .subscribe(new Consumer<List<String>>() {
                     @Override
                     public void accept(List<String> strings) throws Exception {
@@ -117,9 +114,35 @@ public class ReactiveFloatingActionButtonTest {
                 }, new Consumer<Throwable>() {
                     @Override
                     public void accept(Throwable throwable) throws Exception {
-                        assertTrue(fab.isLoading());
                     }
                 });
+
+        waitForMainThread();
+        assertTrue(fab.isLoading());
+
+        subject.onError(new RuntimeException("pew pew"));
+
+        waitForMainThread();
+        assertFalse(fab.isLoading());
+    }
+
+    @Test
+    public void testRxFastRequestNotShown() throws Exception {
+        Context appContext = getContext();
+
+        final ReactiveFloatingActionButton fab = new ReactiveFloatingActionButton(appContext);
+
+        Observable.just(Arrays.asList("The", "cake", "is", "a", "lie"))
+                .compose(ReactiveTransformer.<List<String>>bind(fab))
+                .subscribe();
+
+        waitForMainThread();
+        assertFalse(fab.isLoading());
+        assertTrue(fab.isClickable());
+    }
+
+    private void waitForMainThread() {
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
     }
 
     private Context getContext() {
@@ -0,0 +1,127 @@
+package lu.aqu.reactivecomponents;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+import android.util.Log;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * compares create and bind times of inflated and drawn gallery pages, results are logged with
+ * tag <code>ReactiveGalleryPageTest</code>. The times are not compared, wall-clock timings of a
+ * device or emulator are too noisy to fail a test on.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReactiveGalleryPageTest {
+
+    private static final String TAG = "ReactiveGalleryPageTest";
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+
+    @Test
+    public void testPageViewTypes() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                ReactiveGallery gallery = createGallery(ReactiveGallery.PAGE_VIEW_DRAWN);
+                RecyclerView recyclerView = (RecyclerView) gallery.getChildAt(0);
+
+                RecyclerView.ViewHolder holder = createAndBind(recyclerView, 0);
+                assertTrue(holder.itemView instanceof GalleryPageView);
+
+                gallery.setPageView(ReactiveGallery.PAGE_VIEW_LAYOUT);
+                holder = createAndBind(recyclerView, 0);
+                assertFalse(holder.itemView instanceof GalleryPageView);
+                assertNotNull(holder.itemView.findViewById(R.id.image_view));
+            }
+        });
+    }
+
+    @Test
+    public void testCreateAndBindTimes() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                long[] layout = measure(ReactiveGallery.PAGE_VIEW_LAYOUT);
+                long[] drawn = measure(ReactiveGallery.PAGE_VIEW_DRAWN);
+
+                Log.i(TAG, String.format("layout pages: create %d ns, bind %d ns", layout[0], layout[1]));
+                Log.i(TAG, String.format("drawn pages: create %d ns, bind %d ns", drawn[0], drawn[1]));
+
+                assertTrue(layout[0] > 0 && drawn[0] > 0);
+            }
+        });
+    }
+
+    /**
+     * @return average create and bind time of a page in nanoseconds
+     */
+    private long[] measure(int pageView) {
+        ReactiveGallery gallery = createGallery(pageView);
+        RecyclerView recyclerView = (RecyclerView) gallery.getChildAt(0);
+        RecyclerView.Adapter adapter = recyclerView.getAdapter();
+        int viewType = adapter.getItemViewType(0);
+
+        for (int i = 0; i < WARMUP; i++) {
+            createAndBind(recyclerView, i);
+        }
+
+        List<RecyclerView.ViewHolder> holders = new ArrayList<>(ITERATIONS);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            holders.add(adapter.createViewHolder(recyclerView, viewType));
+        }
+        long create = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            bind(adapter, holders.get(i), i);
+        }
+        long bind = System.nanoTime() - start;
+
+        return new long[]{create / ITERATIONS, bind / ITERATIONS};
+    }
+
+    @SuppressWarnings("unchecked")
+    private RecyclerView.ViewHolder createAndBind(RecyclerView recyclerView, int position) {
+        RecyclerView.Adapter adapter = recyclerView.getAdapter();
+        RecyclerView.ViewHolder holder = adapter.createViewHolder(recyclerView, adapter.getItemViewType(position));
+        bind(adapter, holder, position);
+        return holder;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void bind(RecyclerView.Adapter adapter, RecyclerView.ViewHolder holder, int position) {
+        adapter.bindViewHolder(holder, position);
+        adapter.onViewRecycled(holder);
+    }
+
+    private ReactiveGallery createGallery(int pageView) {
+        ReactiveGallery gallery = new ReactiveGallery(getContext(), null);
+        gallery.setPageView(pageView);
+
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < ITERATIONS + WARMUP; i++) {
+            urls.add("https://cdn.example.com/album/photo-" + i + ".jpg");
+        }
+        gallery.add(urls);
+
+        gallery.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(720, View.MeasureSpec.EXACTLY));
+        gallery.layout(0, 0, 1080, 720);
+        return gallery;
+    }
+
+    private Context getContext() {
+        return InstrumentationRegistry.getTargetContext();
+    }
+}
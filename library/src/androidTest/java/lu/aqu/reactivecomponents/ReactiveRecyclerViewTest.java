@@ -15,8 +15,8 @@ import java.util.Arrays;
 import java.util.List;
 
 import io.reactivex.Observable;
-import io.reactivex.functions.Action;
 import io.reactivex.functions.Consumer;
+import io.reactivex.subjects.PublishSubject;
 import lu.aqu.reactivecomponents.transformers.ReactiveTransformer;
 
 import static org.junit.Assert.*;
@@ -81,20 +81,13 @@ public class ReactiveRecyclerViewTest {
         final Context appContext = InstrumentationRegistry.getTargetContext();
         final ReactiveRecyclerView recyclerView = new ReactiveRecyclerView(appContext);
         recyclerView.setLayoutManager(new LinearLayoutManager(appContext, LinearLayoutManager.HORIZONTAL, false));
+        recyclerView.setIsLoading(false);
+        PublishSubject<List<String>> subject = PublishSubject.create();
 
-        Observable.just(Arrays.asList("The", "cake", "is", "a", "lie"))
-                .compose(ReactiveTransformer.<List<String>>bind(recyclerView))
-                .doOnTerminate(new Action() {
-                    @Override
-                    public void run() throws Exception {
-                        assertFalse(recyclerView.isLoading());
-                        assertTrue(recyclerView.isEmptyViewShowing());
-                    }
-                })
+        subject.compose(ReactiveTransformer.<List<String>>bind(recyclerView))
                 .subscribe(new Consumer<List<String>>() {
                     @Override
                     public void accept(List<String> strings) throws Exception {
-                        assertTrue(recyclerView.isLoading());
                     }
                 }, new Consumer<Throwable>() {
                     @Override
@@ -102,6 +95,16 @@ public class ReactiveRecyclerViewTest {
                         fail();
                     }
                 });
+
+        waitForMainThread();
+        assertTrue(recyclerView.isLoading());
+
+        subject.onNext(Arrays.asList("The", "cake", "is", "a", "lie"));
+        subject.onComplete();
+
+        waitForMainThread();
+        assertFalse(recyclerView.isLoading());
+        assertTrue(recyclerView.isEmptyViewShowing());
     }
 
     @Test
@@ -112,13 +115,6 @@ public class ReactiveRecyclerViewTest {
 
         Observable.<List<String>>error(new RuntimeException("pew pew"))
                 .compose(ReactiveTransformer.<List<String>>bind(recyclerView))
-                .doOnTerminate(new Action() {
-                    @Override
-                    public void run() throws Exception {
-                        assertFalse(recyclerView.isLoading());
-                        assertTrue(recyclerView.isEmptyViewShowing());
-                    }
-                })
                 .subscribe(new Consumer<List<String>>() {
                     @Override
                     public void accept(List<String> strings) throws Exception {
@@ -126,10 +122,12 @@ public class ReactiveRecyclerViewTest {
                     }
                 }, new Consumer<Throwable>() {
                     @Override
-                    public void accept(Throwable throwable) throws Exception {
-                        assertTrue(recyclerView.isLoading());
-                    }
+                    public void accept(Throwable throwable) throws Exception { /* do nothing */ }
                 });
+
+        waitForMainThread();
+        assertFalse(recyclerView.isLoading());
+        assertTrue(recyclerView.isEmptyViewShowing());
     }
 
     @Test
@@ -144,13 +142,6 @@ public class ReactiveRecyclerViewTest {
 
         Observable.just(Arrays.asList("The", "cake", "is", "a", "lie"))
                 .compose(ReactiveTransformer.<List<String>>bind(recyclerView))
-                .doOnTerminate(new Action() {
-                    @Override
-                    public void run() throws Exception {
-                        assertTrue(recyclerView.isLoading());
-                        assertFalse(recyclerView.isEmptyViewShowing());
-                    }
-                })
                 .subscribe(new Consumer<List<String>>() {
                     @Override
                     public void accept(List<String> strings) throws Exception { /* do nothing */ }
@@ -158,6 +149,14 @@ public class ReactiveRecyclerViewTest {
                     @Override
                     public void accept(Throwable throwable) throws Exception { /* do nothing */ }
                 });
+
+        waitForMainThread();
+        assertTrue(recyclerView.isLoading());
+        assertFalse(recyclerView.isEmptyViewShowing());
+    }
+
+    private void waitForMainThread() {
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
     }
 
     private RecyclerView.Adapter createAdapter(final Context context, final int itemCount) {
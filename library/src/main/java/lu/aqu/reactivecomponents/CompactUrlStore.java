@@ -0,0 +1,130 @@
+package lu.aqu.reactivecomponents;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Memory-light list of urls.<br>
+ * Each url is split after its last <code>/</code>: the prefix (scheme, host and path) is stored once
+ * per distinct value and referenced by index, the remaining suffixes of all urls are packed into a
+ * single char array. Large albums whose urls share a few base paths thereby cost a few bytes per
+ * url plus the suffix characters, instead of a <code>String</code> object per url.<br>
+ * Positional access is O(1), the url <code>String</code> is only created when it is requested.
+ */
+final class CompactUrlStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final List<String> mPrefixes = new ArrayList<>();
+    private final HashMap<String, Integer> mPrefixIds = new HashMap<>();
+
+    /**
+     * prefix index of each url
+     */
+    private int[] mPrefixOf = new int[INITIAL_CAPACITY];
+    /**
+     * start of each url's suffix in <code>mChars</code>, <code>mOffsets[size]</code> is the end of
+     * the last suffix
+     */
+    private int[] mOffsets = new int[INITIAL_CAPACITY + 1];
+    private char[] mChars = new char[INITIAL_CAPACITY * 16];
+    private int mSize;
+
+    int size() {
+        return mSize;
+    }
+
+    String get(int position) {
+        if (position < 0 || position >= mSize) {
+            throw new IndexOutOfBoundsException("position " + position + ", size " + mSize);
+        }
+
+        String prefix = mPrefixes.get(mPrefixOf[position]);
+        int start = mOffsets[position];
+        int length = mOffsets[position + 1] - start;
+        return new StringBuilder(prefix.length() + length)
+                .append(prefix)
+                .append(mChars, start, length)
+                .toString();
+    }
+
+    void add(String url) {
+        ensureCapacity(mSize + 1, url.length());
+
+        int split = url.lastIndexOf('/') + 1;
+        mPrefixOf[mSize] = prefixId(url.substring(0, split));
+
+        int start = mOffsets[mSize];
+        url.getChars(split, url.length(), mChars, start);
+        mOffsets[mSize + 1] = start + url.length() - split;
+        mSize++;
+    }
+
+    void addAll(List<String> urls) {
+        int chars = 0;
+        for (int i = 0; i < urls.size(); i++) {
+            chars += urls.get(i).length();
+        }
+        ensureCapacity(mSize + urls.size(), chars);
+
+        for (int i = 0; i < urls.size(); i++) {
+            add(urls.get(i));
+        }
+    }
+
+    void removeRange(int position, int itemCount) {
+        if (position < 0 || itemCount < 0 || position + itemCount > mSize) {
+            throw new IndexOutOfBoundsException("range " + position + "+" + itemCount + ", size " + mSize);
+        }
+
+        int end = position + itemCount;
+        int charStart = mOffsets[position];
+        int charEnd = mOffsets[end];
+        int removedChars = charEnd - charStart;
+
+        System.arraycopy(mChars, charEnd, mChars, charStart, mOffsets[mSize] - charEnd);
+        System.arraycopy(mPrefixOf, end, mPrefixOf, position, mSize - end);
+        for (int i = end; i <= mSize; i++) {
+            mOffsets[i - itemCount] = mOffsets[i] - removedChars;
+        }
+        mSize -= itemCount;
+    }
+
+    void clear() {
+        mPrefixes.clear();
+        mPrefixIds.clear();
+        mPrefixOf = new int[INITIAL_CAPACITY];
+        mOffsets = new int[INITIAL_CAPACITY + 1];
+        mChars = new char[INITIAL_CAPACITY * 16];
+        mSize = 0;
+    }
+
+    private int prefixId(String prefix) {
+        Integer id = mPrefixIds.get(prefix);
+        if (id == null) {
+            id = mPrefixes.size();
+            mPrefixes.add(prefix);
+            mPrefixIds.put(prefix, id);
+        }
+        return id;
+    }
+
+    /**
+     * @param size     number of urls to be stored
+     * @param addChars upper bound of the characters to be added
+     */
+    private void ensureCapacity(int size, int addChars) {
+        if (size > mPrefixOf.length) {
+            int capacity = Math.max(size, mPrefixOf.length * 2);
+            mPrefixOf = Arrays.copyOf(mPrefixOf, capacity);
+            mOffsets = Arrays.copyOf(mOffsets, capacity + 1);
+        }
+
+        int chars = mOffsets[mSize] + addChars;
+        if (chars > mChars.length) {
+            mChars = Arrays.copyOf(mChars, Math.max(chars, mChars.length * 2));
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package lu.aqu.reactivecomponents;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.LruCache;
+
+import java.util.IdentityHashMap;
+
+/**
+ * Memory cache for images loaded by a {@link ReactiveGallery}, keyed by URL and target size.<br>
+ * The cache keeps the constant state of each image and hands out a new drawable per lookup, so
+ * pages showing the same image don't take over each other's bounds and callback. Drawables
+ * without a constant state are not cached.<br>
+ * Entries are evicted least recently used first once their total byte size exceeds the cache's
+ * size. Images are counted as referenced while they are cached or shown by a page, galleries
+ * only hand an image back to their loader for reuse once it is no longer referenced. The cache gives memory back when the system trims memory, see {@link #onTrimMemory(int)}.
+ * A single cache may be shared by several galleries.
+ */
+public class GalleryImageCache implements ComponentCallbacks2 {
+
+    private final LruCache<String, Entry> mCache;
+    /**
+     * number of cache entries and pages referencing an image, by bitmap or constant state
+     */
+    private final IdentityHashMap<Object, Integer> mReferences = new IdentityHashMap<>();
+
+    /**
+     * @param maxBytes maximum byte size of all cached images
+     */
+    public GalleryImageCache(int maxBytes) {
+        mCache = new LruCache<String, Entry>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Entry value) {
+                return value.byteSize;
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Entry oldValue, Entry newValue) {
+                unreference(oldValue.image);
+            }
+        };
+    }
+
+    /**
+     * @param url    of the image
+     * @param width  target width the image has been loaded for
+     * @param height target height the image has been loaded for
+     * @return a new drawable of the cached image or <code>null</code>
+     */
+    @Nullable
+    public Drawable get(@NonNull String url, int width, int height) {
+        Entry entry = mCache.get(key(url, width, height));
+        return entry != null ? entry.state.newDrawable() : null;
+    }
+
+    /**
+     * @param url    of the image
+     * @param width  target width the image has been loaded for
+     * @param height target height the image has been loaded for
+     * @return true if the image is cached
+     */
+    public boolean contains(@NonNull String url, int width, int height) {
+        return mCache.get(key(url, width, height)) != null;
+    }
+
+    /**
+     * @param url      of the image
+     * @param width    target width the image has been loaded for
+     * @param height   target height the image has been loaded for
+     * @param drawable the loaded image, not cached if it has no constant state
+     */
+    public void put(@NonNull String url, int width, int height, @NonNull Drawable drawable) {
+        Drawable.ConstantState state = drawable.getConstantState();
+        if (state != null) {
+            Entry entry = new Entry(state, imageOf(drawable), byteSizeOf(drawable));
+            reference(entry.image);
+            mCache.put(key(url, width, height), entry);
+        }
+    }
+
+    /**
+     * marks <code>drawable</code> as shown by a page, until {@link #release(Drawable)}
+     */
+    void retain(@Nullable Drawable drawable) {
+        reference(imageOf(drawable));
+    }
+
+    /**
+     * @param drawable which is no longer shown by a page
+     */
+    void release(@Nullable Drawable drawable) {
+        unreference(imageOf(drawable));
+    }
+
+    /**
+     * checks all sizes of all URLs, without touching the order of the cache entries
+     *
+     * @param drawable to check
+     * @return true if the image of <code>drawable</code> is cached or shown by a page
+     */
+    boolean isReferenced(@Nullable Drawable drawable) {
+        Object image = imageOf(drawable);
+        if (image == null) {
+            return false;
+        }
+        synchronized (mReferences) {
+            return mReferences.containsKey(image);
+        }
+    }
+
+    private void reference(@Nullable Object image) {
+        if (image == null) {
+            return;
+        }
+        synchronized (mReferences) {
+            Integer count = mReferences.get(image);
+            mReferences.put(image, count != null ? count + 1 : 1);
+        }
+    }
+
+    private void unreference(@Nullable Object image) {
+        if (image == null) {
+            return;
+        }
+        synchronized (mReferences) {
+            Integer count = mReferences.get(image);
+            if (count == null || count <= 1) {
+                mReferences.remove(image);
+            } else {
+                mReferences.put(image, count - 1);
+            }
+        }
+    }
+
+    /**
+     * removes all cached images
+     */
+    public void clear() {
+        mCache.evictAll();
+    }
+
+    /**
+     * @return byte size of all cached images
+     */
+    public int size() {
+        return mCache.size();
+    }
+
+    /**
+     * @return maximum byte size of all cached images
+     */
+    public int maxSize() {
+        return mCache.maxSize();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_MODERATE) {
+            // app is about to be killed in the background, free everything
+            mCache.evictAll();
+        } else if (level >= TRIM_MEMORY_BACKGROUND || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+            mCache.trimToSize(mCache.maxSize() / 4);
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            mCache.trimToSize(mCache.maxSize() / 2);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        mCache.evictAll();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    private static String key(String url, int width, int height) {
+        return url + '@' + width + 'x' + height;
+    }
+
+    /**
+     * @return the image shared by all drawables of the same cache entry, i.e. the bitmap of a
+     * BitmapDrawable or the constant state of other drawables
+     */
+    @Nullable
+    private static Object imageOf(@Nullable Drawable drawable) {
+        if (drawable instanceof BitmapDrawable) {
+            Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+            if (bitmap != null) {
+                return bitmap;
+            }
+        }
+        return drawable != null ? drawable.getConstantState() : null;
+    }
+
+    private static int byteSizeOf(Drawable drawable) {
+        if (drawable instanceof BitmapDrawable) {
+            Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+            if (bitmap != null) {
+                return bitmap.getByteCount();
+            }
+        }
+        // estimate as ARGB_8888
+        return Math.max(1, drawable.getIntrinsicWidth() * drawable.getIntrinsicHeight() * 4);
+    }
+
+    private static class Entry {
+        private final Drawable.ConstantState state;
+        @Nullable
+        private final Object image;
+        private final int byteSize;
+
+        private Entry(Drawable.ConstantState state, @Nullable Object image, int byteSize) {
+            this.state = state;
+            this.image = image;
+            this.byteSize = byteSize;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package lu.aqu.reactivecomponents;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
+import android.util.TypedValue;
+import android.view.View;
+import android.widget.ImageView;
+
+/**
+ * Page of a {@link ReactiveGallery} drawing its image and progress indicator itself.<br>
+ * Replaces the inflated <code>list_item_reactive_gallery</code> layout, an ImageView and a
+ * ProgressBar in a RelativeLayout, by a single view without XML inflation. Images are scaled
+ * like {@link ImageView.ScaleType#CENTER_CROP}.
+ */
+final class GalleryPageView extends View implements ReactiveGallery.Page {
+
+    private final LoadingRingDrawable mRing;
+    private final int mRingSize;
+    private final Matrix mDrawMatrix = new Matrix();
+
+    @Nullable
+    private Drawable mImage;
+    private boolean mShowProgress;
+
+    GalleryPageView(Context context) {
+        super(context);
+
+        TypedValue typedValue = new TypedValue();
+        int color = context.getTheme().resolveAttribute(R.attr.colorAccent, typedValue, true)
+                ? typedValue.data
+                : Color.DKGRAY;
+
+        mRingSize = getResources().getDimensionPixelSize(R.dimen.gallery_progress_size);
+        mRing = new LoadingRingDrawable(color,
+                getResources().getDimensionPixelSize(R.dimen.gallery_progress_stroke));
+        mRing.setCallback(this);
+    }
+
+    @Override
+    public void showProgress() {
+        setImage(null);
+        mShowProgress = true;
+        if (ViewCompat.isAttachedToWindow(this)) {
+            mRing.start();
+        }
+        invalidate();
+    }
+
+    @Override
+    public void showImage(@Nullable Drawable drawable) {
+        mShowProgress = false;
+        mRing.stop();
+        setImage(drawable);
+        invalidate();
+    }
+
+    @Nullable
+    @Override
+    public Drawable getImage() {
+        return mImage;
+    }
+
+    @Override
+    public void clearImage() {
+        setImage(null);
+        invalidate();
+    }
+
+    @Override
+    public ImageView.ScaleType getScaleType() {
+        return ImageView.ScaleType.CENTER_CROP;
+    }
+
+    private void setImage(@Nullable Drawable drawable) {
+        if (drawable == mImage) {
+            return;
+        }
+
+        if (mImage != null) {
+            mImage.setCallback(null);
+            unscheduleDrawable(mImage);
+        }
+        mImage = drawable;
+        if (drawable != null) {
+            drawable.setCallback(this);
+            configureImageBounds();
+        }
+    }
+
+    private void configureImageBounds() {
+        if (mImage == null) {
+            return;
+        }
+
+        int width = getWidth();
+        int height = getHeight();
+        int imageWidth = mImage.getIntrinsicWidth();
+        int imageHeight = mImage.getIntrinsicHeight();
+        mDrawMatrix.reset();
+
+        if (imageWidth <= 0 || imageHeight <= 0) {
+            // no intrinsic size, fill the page
+            mImage.setBounds(0, 0, width, height);
+            return;
+        }
+
+        // center crop
+        mImage.setBounds(0, 0, imageWidth, imageHeight);
+        float scale = Math.max((float) width / imageWidth, (float) height / imageHeight);
+        mDrawMatrix.setScale(scale, scale);
+        mDrawMatrix.postTranslate(Math.round((width - imageWidth * scale) / 2f),
+                Math.round((height - imageHeight * scale) / 2f));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        configureImageBounds();
+
+        int left = (w - mRingSize) / 2;
+        int top = (h - mRingSize) / 2;
+        mRing.setBounds(left, top, left + mRingSize, top + mRingSize);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (mImage != null) {
+            int saveCount = canvas.save();
+            canvas.clipRect(0, 0, getWidth(), getHeight());
+            canvas.concat(mDrawMatrix);
+            mImage.draw(canvas);
+            canvas.restoreToCount(saveCount);
+        } else if (mShowProgress) {
+            mRing.draw(canvas);
+        }
+    }
+
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable who) {
+        return who == mImage || who == mRing || super.verifyDrawable(who);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (mShowProgress) {
+            mRing.start();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mRing.stop();
+        super.onDetachedFromWindow();
+    }
+}
@@ -0,0 +1,195 @@
+package lu.aqu.reactivecomponents;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.design.widget.FloatingActionButton;
+import android.support.v4.view.ViewCompat;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+
+/**
+ * FloatingActionButton featuring loading state, without a wrapping layout.<br>
+ * Behaves like {@link ReactiveFloatingActionButton} and accepts the same attributes, but is a
+ * single view: the loading ring is drawn by the button itself along the edge of its circle, so it
+ * takes no additional space and adds no measure pass. Prefer it where many buttons are displayed,
+ * e.g. in list rows.
+ */
+public class LoadingFloatingActionButton extends FloatingActionButton implements ReactiveComponent {
+
+    private boolean mDisabledWhileLoading;
+    private boolean mClickableWhileLoading;
+    private float mDisabledAlpha;
+
+    /**
+     * loading indicator, created on the first loading state
+     */
+    @Nullable
+    private LoadingRingDrawable mRing;
+    private final int mRingStroke;
+    private final Rect mContentRect = new Rect();
+    private final ViewStateMachine mViewState = new ViewStateMachine(ViewStateMachine.STATE_ITEMS);
+
+    public LoadingFloatingActionButton(Context context) {
+        this(context, null);
+    }
+
+    public LoadingFloatingActionButton(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public LoadingFloatingActionButton(Context context, @Nullable AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+
+        TypedArray a = context.getTheme()
+                .obtainStyledAttributes(attrs, R.styleable.ReactiveFloatingActionButton, 0, 0);
+        try {
+            mClickableWhileLoading = a
+                    .getBoolean(R.styleable.ReactiveFloatingActionButton_clickableWhileLoading, false);
+            mDisabledWhileLoading = a
+                    .getBoolean(R.styleable.ReactiveFloatingActionButton_disabledWhileLoading, false);
+            mDisabledAlpha = a.getFloat(R.styleable.ReactiveFloatingActionButton_disabledAlpha, 0.65f);
+
+            if (a.hasValue(R.styleable.ReactiveFloatingActionButton_backgroundColor)) {
+                int background = a.getColor(R.styleable.ReactiveFloatingActionButton_backgroundColor,
+                        getPrimaryDarkColor(context));
+                setBackgroundTintList(ColorStateList.valueOf(background));
+            }
+
+            if (a.hasValue(R.styleable.ReactiveFloatingActionButton_src)) {
+                Drawable drawable = a.getDrawable(R.styleable.ReactiveFloatingActionButton_src);
+                setImageDrawable(drawable);
+            }
+
+            if (a.hasValue(R.styleable.ReactiveFloatingActionButton_loadingFabSize)) {
+                setSize(a.getInt(R.styleable.ReactiveFloatingActionButton_loadingFabSize, SIZE_NORMAL));
+            }
+            mRingStroke = getResources().getDimensionPixelSize(getSize() == SIZE_MINI
+                    ? R.dimen.fab_progress_stroke_mini
+                    : R.dimen.fab_progress_stroke);
+        } finally {
+            a.recycle();
+        }
+    }
+
+    private int getPrimaryDarkColor(Context context) {
+        TypedValue typedValue = new TypedValue();
+        context.getTheme().resolveAttribute(R.attr.colorPrimaryDark, typedValue, true);
+        return typedValue.data;
+    }
+
+    private int getAccentColor(Context context) {
+        TypedValue typedValue = new TypedValue();
+        return context.getTheme().resolveAttribute(R.attr.colorAccent, typedValue, true)
+                ? typedValue.data
+                : Color.DKGRAY;
+    }
+
+    private LoadingRingDrawable getRing() {
+        if (mRing == null) {
+            mRing = new LoadingRingDrawable(getAccentColor(getContext()), mRingStroke);
+            mRing.setCallback(this);
+        }
+        return mRing;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (mViewState.isLoading() && mRing != null) {
+            // the circle without its shadow
+            if (!getContentRect(mContentRect)) {
+                mContentRect.set(0, 0, getWidth(), getHeight());
+            }
+            mRing.setBounds(mContentRect);
+            mRing.draw(canvas);
+        }
+    }
+
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable who) {
+        return who == mRing || super.verifyDrawable(who);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (mViewState.isLoading()) {
+            getRing().start();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (mRing != null) {
+            mRing.stop();
+        }
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    public void onLoadingStart() {
+        setIsLoading(true);
+    }
+
+    @Override
+    public void onLoadingFinished() {
+        setIsLoading(false);
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        super.setEnabled(enabled);
+        setAlpha((enabled) ? 1f : mDisabledAlpha);
+    }
+
+    @Override
+    public void setIsLoading(boolean loading) {
+        if (mViewState.moveTo(loading ? ViewStateMachine.STATE_PROGRESS : ViewStateMachine.STATE_ITEMS)) {
+            if (loading) {
+                LoadingRingDrawable ring = getRing();
+                if (ViewCompat.isAttachedToWindow(this)) {
+                    ring.start();
+                }
+            } else if (mRing != null) {
+                mRing.stop();
+            }
+            invalidate();
+        }
+
+        if (mDisabledWhileLoading) {
+            setEnabled(!loading);
+        } else if (!mClickableWhileLoading) {
+            setClickable(!loading);
+        }
+    }
+
+    @Override
+    public boolean isLoading() {
+        return mViewState.isLoading();
+    }
+
+    /**
+     * specify whether the component shall be clickable while in loading state (defaults to false)
+     *
+     * @param clickable
+     */
+    public void setClickableWhileLoading(boolean clickable) {
+        mClickableWhileLoading = clickable;
+    }
+
+    /**
+     * specify whether the component shall be disabled while loading state is displayed
+     *
+     * @param disabled
+     */
+    public void setDisabledWhileLoading(boolean disabled) {
+        mDisabledWhileLoading = disabled;
+    }
+}
@@ -0,0 +1,114 @@
+package lu.aqu.reactivecomponents;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Indeterminate progress indicator drawing a rotating arc inside its bounds.<br>
+ * Used by components which draw their loading state themselves instead of adding a
+ * <code>ProgressBar</code> to the view hierarchy. The host view has to return the drawable from
+ * <code>verifyDrawable</code> for the animation to invalidate it.
+ */
+final class LoadingRingDrawable extends Drawable implements Animatable, Runnable {
+
+    private static final long FRAME_DELAY = 16;
+    private static final long ROTATION_DURATION = 1000;
+    private static final float SWEEP_ANGLE = 270f;
+
+    private final Paint mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF mArcBounds = new RectF();
+    private boolean mRunning;
+    private long mStartTime;
+
+    /**
+     * @param color       of the arc
+     * @param strokeWidth of the arc in pixels
+     */
+    LoadingRingDrawable(int color, float strokeWidth) {
+        mPaint.setColor(color);
+        mPaint.setStyle(Paint.Style.STROKE);
+        mPaint.setStrokeCap(Paint.Cap.ROUND);
+        mPaint.setStrokeWidth(strokeWidth);
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        float inset = mPaint.getStrokeWidth() / 2;
+        mArcBounds.set(bounds.left + inset, bounds.top + inset, bounds.right - inset, bounds.bottom - inset);
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        long elapsed = mRunning ? SystemClock.uptimeMillis() - mStartTime : 0;
+        float startAngle = (elapsed % ROTATION_DURATION) * 360f / ROTATION_DURATION;
+        canvas.drawArc(mArcBounds, startAngle - 90f, SWEEP_ANGLE, false, mPaint);
+    }
+
+    @Override
+    public void start() {
+        if (mRunning) {
+            return;
+        }
+
+        mRunning = true;
+        mStartTime = SystemClock.uptimeMillis();
+        scheduleSelf(this, mStartTime + FRAME_DELAY);
+        invalidateSelf();
+    }
+
+    @Override
+    public void stop() {
+        if (mRunning) {
+            mRunning = false;
+            unscheduleSelf(this);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return mRunning;
+    }
+
+    @Override
+    public void run() {
+        if (mRunning) {
+            invalidateSelf();
+            scheduleSelf(this, SystemClock.uptimeMillis() + FRAME_DELAY);
+        }
+    }
+
+    @Override
+    public boolean setVisible(boolean visible, boolean restart) {
+        boolean changed = super.setVisible(visible, restart);
+        if (!visible) {
+            stop();
+        }
+        return changed;
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        mPaint.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        mPaint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
@@ -0,0 +1,15 @@
+package lu.aqu.reactivecomponents;
+
+/**
+ * Adapter loading its content itself.<br>
+ * While {@link #isPending()} returns true, a {@link ReactiveRecyclerView} keeps displaying its
+ * progress view after the adapter has been set. The adapter notifies its observers once the
+ * content has arrived, even if it is empty.
+ */
+public interface PendingAdapter {
+
+    /**
+     * @return true if the adapter's content has not arrived yet
+     */
+    boolean isPending();
+}
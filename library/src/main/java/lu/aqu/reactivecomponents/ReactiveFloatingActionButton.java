@@ -3,24 +3,36 @@ package lu.aqu.reactivecomponents;
 import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.design.widget.FloatingActionButton;
+import android.support.v4.view.ViewCompat;
 import android.util.AttributeSet;
 import android.util.TypedValue;
-import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ProgressBar;
 import android.widget.RelativeLayout;
 
 /**
- * FloatingActionButton featuring loading state
+ * FloatingActionButton featuring loading state.<br>
+ * The loading state is a ring drawn around the button, which is only created once the button
+ * starts loading for the first time. The space of the ring is always reserved, so toggling the
+ * loading state never changes the layout.
  */
 public class ReactiveFloatingActionButton extends RelativeLayout implements ReactiveComponent {
 
     private FloatingActionButton mFab;
-    private ProgressBar mProgressBar;
+    /**
+     * loading indicator, created on the first loading state
+     */
+    @Nullable
+    private LoadingRingDrawable mRing;
+    private final int mRingSize;
+    private final int mRingStroke;
+    private final ViewStateMachine mViewState = new ViewStateMachine(ViewStateMachine.STATE_ITEMS);
 
     private boolean mDisabledWhileLoading;
     private boolean mClickableWhileLoading;
@@ -41,7 +53,6 @@ public class ReactiveFloatingActionButton extends RelativeLayout implements Reac
         super(context, attrs, defStyle);
 
         setClipChildren(false);
-        LayoutInflater inflater = LayoutInflater.from(context);
 
         mFab = new FloatingActionButton(context, attrs, defStyle);
 
@@ -67,18 +78,20 @@ public class ReactiveFloatingActionButton extends RelativeLayout implements Reac
 
             int size = a.getInt(R.styleable.ReactiveFloatingActionButton_loadingFabSize, SIZE_NORMAL);
             if (size == SIZE_MINI) {
-                mProgressBar = (ProgressBar) inflater.inflate(R.layout.progress_bar_mini, null);
+                mRingSize = getResources().getDimensionPixelSize(R.dimen.fab_progress_size_mini);
+                mRingStroke = getResources().getDimensionPixelSize(R.dimen.fab_progress_stroke_mini);
             } else {
-                mProgressBar = (ProgressBar) inflater.inflate(R.layout.progress_bar_normal, null);
+                mRingSize = getResources().getDimensionPixelSize(R.dimen.fab_progress_size);
+                mRingStroke = getResources().getDimensionPixelSize(R.dimen.fab_progress_stroke);
             }
             mFab.setSize(size);
         } finally {
             a.recycle();
         }
 
-        mProgressBar.setVisibility(INVISIBLE);
+        setMinimumWidth(mRingSize);
+        setMinimumHeight(mRingSize);
         addViewCentered(mFab);
-        addViewCentered(mProgressBar);
 
         mFab.setOnClickListener(new OnClickListener() {
             @Override
@@ -101,6 +114,65 @@ public class ReactiveFloatingActionButton extends RelativeLayout implements Reac
         return typedValue.data;
     }
 
+    private int getAccentColor(Context context) {
+        TypedValue typedValue = new TypedValue();
+        return context.getTheme().resolveAttribute(R.attr.colorAccent, typedValue, true)
+                ? typedValue.data
+                : Color.DKGRAY;
+    }
+
+    private LoadingRingDrawable getRing() {
+        if (mRing == null) {
+            mRing = new LoadingRingDrawable(getAccentColor(getContext()), mRingStroke);
+            mRing.setCallback(this);
+            updateRingBounds(getWidth(), getHeight());
+        }
+        return mRing;
+    }
+
+    private void updateRingBounds(int width, int height) {
+        if (mRing != null) {
+            int left = (width - mRingSize) / 2;
+            int top = (height - mRingSize) / 2;
+            mRing.setBounds(left, top, left + mRingSize, top + mRingSize);
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateRingBounds(w, h);
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        super.dispatchDraw(canvas);
+        if (mViewState.isLoading() && mRing != null) {
+            mRing.draw(canvas);
+        }
+    }
+
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable who) {
+        return who == mRing || super.verifyDrawable(who);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (mViewState.isLoading()) {
+            getRing().start();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (mRing != null) {
+            mRing.stop();
+        }
+        super.onDetachedFromWindow();
+    }
+
     @Override
     public void onLoadingStart() {
         setIsLoading(true);
@@ -131,7 +203,18 @@ public class ReactiveFloatingActionButton extends RelativeLayout implements Reac
 
     @Override
     public void setIsLoading(boolean loading) {
-        mProgressBar.setVisibility((loading) ? VISIBLE : INVISIBLE);
+        if (mViewState.moveTo(loading ? ViewStateMachine.STATE_PROGRESS : ViewStateMachine.STATE_ITEMS)) {
+            if (loading) {
+                LoadingRingDrawable ring = getRing();
+                if (ViewCompat.isAttachedToWindow(this)) {
+                    ring.start();
+                }
+            } else if (mRing != null) {
+                mRing.stop();
+            }
+            // the ring is drawn on top of the button, no layout is required
+            invalidate();
+        }
 
         if (mDisabledWhileLoading) {
             setEnabled(!loading);
@@ -142,7 +225,7 @@ public class ReactiveFloatingActionButton extends RelativeLayout implements Reac
 
     @Override
     public boolean isLoading() {
-        return mProgressBar.getVisibility() == VISIBLE;
+        return mViewState.isLoading();
     }
 
     /**
@@ -2,6 +2,7 @@ package lu.aqu.reactivecomponents;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.support.annotation.DrawableRes;
@@ -11,23 +12,76 @@ import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.PagerSnapHelper;
 import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
-import android.view.Gravity;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
-import android.widget.LinearLayout;
 import android.widget.ProgressBar;
 import android.widget.RelativeLayout;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-public class ReactiveGallery extends RelativeLayout {
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import lu.aqu.reactivecomponents.transformers.ReactiveTransformer;
+
+/**
+ * Image gallery with lazy loading of its pages.<br>
+ * The gallery is a {@link ReactiveComponent}: it shows a progress bar while loading, e.g. while the
+ * urls of a bound stream are fetched, see {@link #bindUrls(Flowable)}.
+ */
+public class ReactiveGallery extends RelativeLayout implements ReactiveComponent {
+
+    private static final String TAG = "ReactiveGallery";
+
+    /**
+     * error handler of url streams bound without one
+     */
+    private static final Consumer<Throwable> LOG_URL_ERROR = new Consumer<Throwable>() {
+        @Override
+        public void accept(Throwable throwable) {
+            Log.w(TAG, "url stream failed", throwable);
+        }
+    };
+
+    /**
+     * pages are inflated from <code>list_item_reactive_gallery</code>
+     */
+    public static final int PAGE_VIEW_LAYOUT = 0;
+    /**
+     * pages are single views drawing their image and progress indicator themselves
+     */
+    public static final int PAGE_VIEW_DRAWN = 1;
 
     private Adapter mImageAdapter;
     private Indicators mIndicators;
     private ImageLoader mImageLoader;
+    @Nullable
+    private GalleryImageCache mImageCache;
+    private RecyclerView mGallery;
+    private int mCurrentPage;
+    /**
+     * scale type of the page image views, passed to size aware image loaders
+     */
+    private ImageView.ScaleType mScaleType = ImageView.ScaleType.CENTER_CROP;
+    private final Prefetcher mPrefetcher = new Prefetcher();
+    /**
+     * gallery level progress bar, created when the gallery is first set to loading
+     */
+    @Nullable
+    private ProgressBar mProgressBar;
+    private final ViewStateMachine mViewState = new ViewStateMachine(ViewStateMachine.STATE_ITEMS);
+    @Nullable
+    private UrlAppender mUrlAppender;
+    private int mPageView = PAGE_VIEW_LAYOUT;
 
     public ReactiveGallery(Context context, AttributeSet attrs) {
         super(context, attrs);
@@ -37,6 +91,7 @@ public class ReactiveGallery extends RelativeLayout {
         Drawable indicatorActive = null;
         Drawable indicatorInactive = null;
         final int indicatorSpacing;
+        final int indicatorMaxVisible;
         try {
             if (a.hasValue(R.styleable.ReactiveGallery_indicatorActive)) {
                 indicatorActive = a.getDrawable(R.styleable.ReactiveGallery_indicatorActive);
@@ -48,6 +103,9 @@ public class ReactiveGallery extends RelativeLayout {
 
             indicatorSpacing = a.getDimensionPixelSize(R.styleable.ReactiveGallery_indicatorSpacing,
                     getResources().getDimensionPixelSize(R.dimen.indicator_spacing));
+            indicatorMaxVisible = a.getInt(R.styleable.ReactiveGallery_indicatorMaxVisible,
+                    getResources().getInteger(R.integer.indicator_max_visible));
+            mPageView = a.getInt(R.styleable.ReactiveGallery_pageView, PAGE_VIEW_LAYOUT);
         } finally {
             a.recycle();
         }
@@ -55,14 +113,16 @@ public class ReactiveGallery extends RelativeLayout {
         setGravity(CENTER_HORIZONTAL);
 
         setupRecyclerView();
-        setupIndicators(indicatorActive, indicatorInactive, indicatorSpacing);
+        setupIndicators(indicatorActive, indicatorInactive, indicatorSpacing, indicatorMaxVisible);
     }
 
     private void setupIndicators(@Nullable Drawable indicatorActive, @Nullable Drawable indicatorInactive,
-                                 int indicatorSpacing) {
-        mIndicators = new Indicators(getContext(), indicatorActive, indicatorInactive, indicatorSpacing);
+                                 int indicatorSpacing, int indicatorMaxVisible) {
+        mIndicators = new Indicators(getContext(), indicatorActive, indicatorInactive, indicatorSpacing,
+                indicatorMaxVisible);
 
-        LayoutParams layoutParams = new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
+        LayoutParams layoutParams = new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
+        layoutParams.addRule(CENTER_HORIZONTAL);
         layoutParams.addRule(ALIGN_PARENT_BOTTOM);
 
         int marginBottom = getResources().getDimensionPixelSize(R.dimen.indicator_margin_bottom);
@@ -75,32 +135,291 @@ public class ReactiveGallery extends RelativeLayout {
         mImageAdapter = new Adapter();
 
         RecyclerView gallery = new RecyclerView(getContext());
+        mGallery = gallery;
         final LinearLayoutManager layoutManager = new LinearLayoutManager(getContext(),
                 LinearLayoutManager.HORIZONTAL, false);
         gallery.setLayoutManager(layoutManager);
         gallery.setAdapter(mImageAdapter);
 
+        final PagerSnapHelper pagerSnapHelper = new PagerSnapHelper();
+        pagerSnapHelper.attachToRecyclerView(gallery);
+
+        // the page changes once a swipe has settled, not while it is dragged
         gallery.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+                super.onScrollStateChanged(recyclerView, newState);
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    updateSnappedPage();
+                }
+            }
+
             @Override
             public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
                 super.onScrolled(recyclerView, dx, dy);
-                mIndicators.setPage(layoutManager.findLastVisibleItemPosition());
+                // jumps to a position and layouts scroll without a scroll state
+                if (recyclerView.getScrollState() == RecyclerView.SCROLL_STATE_IDLE) {
+                    updateSnappedPage();
+                }
             }
-        });
 
-        PagerSnapHelper pagerSnapHelper = new PagerSnapHelper();
-        pagerSnapHelper.attachToRecyclerView(gallery);
+            private void updateSnappedPage() {
+                View snapView = pagerSnapHelper.findSnapView(layoutManager);
+                int page = snapView != null ? layoutManager.getPosition(snapView) : RecyclerView.NO_POSITION;
+                if (page != RecyclerView.NO_POSITION && page != mCurrentPage) {
+                    onPageChanged(page);
+                }
+            }
+        });
 
         addView(gallery, new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
     }
 
+    private void onPageChanged(int page) {
+        mCurrentPage = page;
+        mIndicators.setPage(page);
+        mPrefetcher.update();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        // prefetched images are loaded for the page size
+        post(new Runnable() {
+            @Override
+            public void run() {
+                mPrefetcher.clear();
+                mPrefetcher.update();
+            }
+        });
+    }
+
+    /**
+     * sets how pages are displayed. {@link #PAGE_VIEW_DRAWN} pages are a single view without XML
+     * inflation, which draws the image (center cropped) and a progress ring itself.
+     *
+     * @param pageView {@link #PAGE_VIEW_LAYOUT} (default) or {@link #PAGE_VIEW_DRAWN}
+     */
+    public void setPageView(int pageView) {
+        if (pageView != mPageView) {
+            mPageView = pageView;
+            mImageAdapter.notifyDataSetChanged();
+        }
+    }
+
     /**
-     * sets the class that receives a callback, whenever an image URL should be loaded
+     * @return {@link #PAGE_VIEW_LAYOUT} or {@link #PAGE_VIEW_DRAWN}
+     */
+    public int getPageView() {
+        return mPageView;
+    }
+
+    /**
+     * sets how many pages before and after the current page are loaded in advance, whenever the
+     * current page changes. Prefetched images are handed to the pages once they are bound.
+     *
+     * @param pages number of pages to prefetch in each direction, 0 to disable (defaults to 1)
+     */
+    public void setPrefetchWindow(int pages) {
+        mPrefetcher.window = Math.max(0, pages);
+        mPrefetcher.update();
+    }
+
+    /**
+     * sets the class that receives a callback, whenever an image URL should be loaded.<br>
+     * A {@link SizeAwareImageLoader} additionally receives the size and scale type of the page's
+     * image view, see {@link SampledBitmapLoader}.
      *
      * @param imageLoader ImageLoader implementation to load an image
      */
     public void setImageLoader(ImageLoader imageLoader) {
         mImageLoader = imageLoader;
+        mPrefetcher.clear();
+        mPrefetcher.update();
+    }
+
+    @Nullable
+    private Disposable loadImage(String url, int width, int height, LoadingCallback callback) {
+        if (mImageLoader instanceof SizeAwareImageLoader) {
+            return ((SizeAwareImageLoader) mImageLoader).loadImage(url, width, height, mScaleType, callback);
+        }
+        return mImageLoader.loadImage(url, callback);
+    }
+
+    /**
+     * hands an image which is no longer displayed back to a size aware image loader, unless it is
+     * still cached or shown by another page, see {@link GalleryImageCache#isReferenced(Drawable)}
+     */
+    private void releaseImage(@Nullable Drawable drawable) {
+        if (!(mImageLoader instanceof SizeAwareImageLoader) || drawable == null) {
+            return;
+        }
+        if (mImageCache != null && mImageCache.isReferenced(drawable)) {
+            return;
+        }
+        ((SizeAwareImageLoader) mImageLoader).releaseImage(drawable);
+    }
+
+    /**
+     * @return width of a laid out page, pages match the gallery's content size
+     */
+    private int getPageWidth() {
+        return mGallery.getWidth() - mGallery.getPaddingLeft() - mGallery.getPaddingRight();
+    }
+
+    /**
+     * @return height of a laid out page
+     */
+    private int getPageHeight() {
+        return mGallery.getHeight() - mGallery.getPaddingTop() - mGallery.getPaddingBottom();
+    }
+
+    /**
+     * sets a memory cache in front of the ImageLoader. Cached images are displayed synchronously
+     * when a page is bound, without showing the progress bar.
+     *
+     * @param imageCache cache to store loaded images in, may be shared among galleries.
+     *                   <code>null</code> to disable caching
+     */
+    public void setImageCache(@Nullable GalleryImageCache imageCache) {
+        if (mImageCache != null && isAttachedToWindowCompat()) {
+            getContext().getApplicationContext().unregisterComponentCallbacks(mImageCache);
+        }
+        mImageCache = imageCache;
+        if (mImageCache != null && isAttachedToWindowCompat()) {
+            getContext().getApplicationContext().registerComponentCallbacks(mImageCache);
+        }
+    }
+
+    private boolean isAttachedToWindowCompat() {
+        return getWindowToken() != null;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (mImageCache != null) {
+            // trim the cache along with the system's memory
+            getContext().getApplicationContext().registerComponentCallbacks(mImageCache);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        unbindUrls();
+        mPrefetcher.clear();
+        if (mImageCache != null) {
+            getContext().getApplicationContext().unregisterComponentCallbacks(mImageCache);
+        }
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    public void onLoadingStart() {
+        setIsLoading(true);
+    }
+
+    @Override
+    public void onLoadingFinished() {
+        setIsLoading(false);
+    }
+
+    @Override
+    public void setIsLoading(boolean loading) {
+        if (!mViewState.moveTo(loading ? ViewStateMachine.STATE_PROGRESS : ViewStateMachine.STATE_ITEMS)) {
+            return;
+        }
+
+        if (loading && mProgressBar == null) {
+            mProgressBar = new ProgressBar(getContext());
+            LayoutParams layoutParams = new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
+            layoutParams.addRule(CENTER_IN_PARENT);
+            addView(mProgressBar, layoutParams);
+        } else if (mProgressBar != null) {
+            mProgressBar.setVisibility(loading ? VISIBLE : GONE);
+        }
+    }
+
+    @Override
+    public boolean isLoading() {
+        return mViewState.isLoading();
+    }
+
+    /**
+     * replaces the gallery's urls by the lists emitted by <code>urls</code>. Every emitted list is
+     * appended to the gallery, so pages are displayed as soon as the first list arrives, while their
+     * images are only requested once the pages are bound.<br>
+     * The gallery shows its loading state until the first list has been emitted. The subscription
+     * is disposed when the gallery is detached from its window or another stream is bound.
+     *
+     * Errors of the stream are logged, use {@link #bindUrls(Flowable, Consumer)} to handle them.
+     *
+     * @param urls stream of url batches, may emit on any thread
+     * @return the subscription to the stream
+     */
+    public Disposable bindUrls(@NonNull Flowable<? extends List<String>> urls) {
+        return bindUrls(urls, LOG_URL_ERROR);
+    }
+
+    /**
+     * like {@link #bindUrls(Flowable)}, passing errors of the stream to <code>onError</code>
+     *
+     * @param urls    stream of url batches, may emit on any thread
+     * @param onError receiving the error of the stream, on the thread the stream has failed on
+     * @return the subscription to the stream
+     */
+    public Disposable bindUrls(@NonNull Flowable<? extends List<String>> urls,
+                               @NonNull Consumer<? super Throwable> onError) {
+        UrlAppender appender = startAppending();
+        return appender.subscribe(urls.compose(ReactiveTransformer.<List<String>>bind(this)), onError);
+    }
+
+    /**
+     * like {@link #bindUrls(Flowable)} for a stream of single urls. Urls arriving before the gallery
+     * has been updated are appended in a single batch.
+     * Errors of the stream are logged, use {@link #bindUrlStream(Flowable, Consumer)} to handle them.
+     *
+     * @param urls stream of urls, may emit on any thread
+     * @return the subscription to the stream
+     */
+    public Disposable bindUrlStream(@NonNull Flowable<String> urls) {
+        return bindUrlStream(urls, LOG_URL_ERROR);
+    }
+
+    /**
+     * like {@link #bindUrlStream(Flowable)}, passing errors of the stream to <code>onError</code>
+     *
+     * @param urls    stream of urls, may emit on any thread
+     * @param onError receiving the error of the stream, on the thread the stream has failed on
+     * @return the subscription to the stream
+     */
+    public Disposable bindUrlStream(@NonNull Flowable<String> urls, @NonNull Consumer<? super Throwable> onError) {
+        UrlAppender appender = startAppending();
+        return appender.subscribe(urls.compose(ReactiveTransformer.<String>bind(this))
+                .map(new Function<String, List<String>>() {
+                    @Override
+                    public List<String> apply(String url) {
+                        return Collections.singletonList(url);
+                    }
+                }), onError);
+    }
+
+    /**
+     * disposes the stream bound with {@link #bindUrls(Flowable)} or {@link #bindUrlStream(Flowable)},
+     * urls emitted so far remain in the gallery
+     */
+    public void unbindUrls() {
+        if (mUrlAppender != null) {
+            mUrlAppender.dispose();
+            mUrlAppender = null;
+        }
+    }
+
+    private UrlAppender startAppending() {
+        unbindUrls();
+        setUrls(null);
+        mUrlAppender = new UrlAppender(ReactiveTransformer.getMainThread());
+        return mUrlAppender;
     }
 
     /**
@@ -112,6 +431,7 @@ public class ReactiveGallery extends RelativeLayout {
         if (url != null) {
             mImageAdapter.add(url);
             mIndicators.addDot();
+            mPrefetcher.update();
         }
     }
 
@@ -121,82 +441,625 @@ public class ReactiveGallery extends RelativeLayout {
      * @param urls
      */
     public void add(List<String> urls) {
-        if (urls != null) {
+        if (urls != null && !urls.isEmpty()) {
             mImageAdapter.addAll(urls);
             mIndicators.addDots(urls.size());
+            mPrefetcher.update();
+        }
+    }
+
+    /**
+     * replaces all image urls of the gallery. Pages whose position still exists are rebound, the
+     * remaining pages are inserted or removed as a single range.
+     *
+     * @param urls new image urls, <code>null</code> to clear the gallery
+     */
+    public void setUrls(@Nullable List<String> urls) {
+        mImageAdapter.replaceAll(urls != null ? urls : Collections.<String>emptyList());
+        onCountChanged();
+    }
+
+    /**
+     * replaces all image urls of the gallery by <code>count</code> urls, which are created by
+     * <code>provider</code> only once their pages are bound or prefetched. Large albums thereby hold
+     * no url strings until they are displayed.<br>
+     * Urls added afterwards are appended after the provider's urls, the provider's urls themselves
+     * cannot be removed.
+     *
+     * @param provider creating the url of a position
+     * @param count    number of urls of the provider
+     */
+    public void setUrlProvider(@NonNull UrlProvider provider, int count) {
+        unbindUrls();
+        mImageAdapter.setProvider(provider, count);
+        onCountChanged();
+    }
+
+    /**
+     * removes a range of image urls from the gallery
+     *
+     * @param position  of the first url to remove
+     * @param itemCount number of urls to remove
+     */
+    public void remove(int position, int itemCount) {
+        if (itemCount > 0) {
+            mImageAdapter.removeRange(position, itemCount);
+            onCountChanged();
+        }
+    }
+
+    /**
+     * removes all image urls from the gallery
+     */
+    public void clear() {
+        setUrls(null);
+    }
+
+    /**
+     * @return number of image urls in the gallery
+     */
+    public int getCount() {
+        return mImageAdapter.getItemCount();
+    }
+
+    private void onCountChanged() {
+        int count = mImageAdapter.getItemCount();
+        mIndicators.setCount(count);
+        if (mCurrentPage >= count) {
+            onPageChanged(Math.max(0, count - 1));
+        } else {
+            mPrefetcher.update();
+        }
+    }
+
+    /**
+     * collects urls emitted on any thread and appends them to the gallery on the main thread, all
+     * urls arriving before the append has run are added in a single batch
+     */
+    private class UrlAppender implements Runnable {
+
+        private final MainThread mainThread;
+        private final List<String> pending = new ArrayList<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        @Nullable
+        private Disposable subscription;
+        private volatile boolean disposed;
+
+        private UrlAppender(MainThread mainThread) {
+            this.mainThread = mainThread;
+        }
+
+        private Disposable subscribe(Flowable<? extends List<String>> urls, Consumer<? super Throwable> onError) {
+            subscription = urls.subscribe(new Consumer<List<String>>() {
+                @Override
+                public void accept(List<String> batch) {
+                    synchronized (pending) {
+                        pending.addAll(batch);
+                    }
+                    if (scheduled.compareAndSet(false, true)) {
+                        mainThread.post(UrlAppender.this);
+                    }
+                }
+            }, onError);
+            return subscription;
+        }
+
+        private void dispose() {
+            disposed = true;
+            if (subscription != null) {
+                subscription.dispose();
+            }
+        }
+
+        @Override
+        public void run() {
+            scheduled.set(false);
+
+            List<String> batch;
+            synchronized (pending) {
+                batch = new ArrayList<>(pending);
+                pending.clear();
+            }
+            if (!disposed) {
+                add(batch);
+            }
         }
     }
 
     private class Adapter extends RecyclerView.Adapter<Adapter.ViewHolder> {
 
-        private final List<String> urls = new ArrayList<>();
+        /**
+         * urls in front of the stored urls, created on demand
+         */
+        @Nullable
+        private UrlProvider provider;
+        private int providerCount;
+        private final CompactUrlStore urls = new CompactUrlStore();
+        /**
+         * number of view holders bound to each url, including those bound ahead by the GapWorker
+         */
+        private final HashMap<String, Integer> boundUrls = new HashMap<>();
+
+        @Nullable
+        private LayoutInflater inflater;
+
+        @Override
+        public int getItemViewType(int position) {
+            return mPageView;
+        }
 
         @NonNull
         @Override
         public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-            LayoutInflater inflater = (LayoutInflater) parent.getContext()
-                    .getSystemService(Context.LAYOUT_INFLATER_SERVICE);
-
-            View view = inflater != null
-                    ? inflater.inflate(R.layout.list_item_reactive_gallery, parent, false)
-                    : null;
-            return new ViewHolder(view);
+            ViewHolder holder;
+            if (viewType == PAGE_VIEW_DRAWN) {
+                GalleryPageView view = new GalleryPageView(parent.getContext());
+                view.setLayoutParams(new RecyclerView.LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
+                holder = new ViewHolder(view, view);
+            } else {
+                if (inflater == null) {
+                    inflater = LayoutInflater.from(parent.getContext());
+                }
+                View view = inflater.inflate(R.layout.list_item_reactive_gallery, parent, false);
+                holder = new ViewHolder(view, new InflatedPage(view));
+            }
+            mScaleType = holder.page.getScaleType();
+            return holder;
         }
 
         @Override
         public void onBindViewHolder(@NonNull final ViewHolder holder, int position) {
-            holder.progressBar.setVisibility(VISIBLE);
-            holder.imageView.setVisibility(GONE);
+            holder.cancelLoad();
+            holder.releaseImage();
 
-            if (mImageLoader != null) {
-                mImageLoader.loadImage(urls.get(position), new LoadingCallback() {
-                    @Override
-                    public void onLoadFinished(Drawable drawable) {
-                        holder.progressBar.setVisibility(GONE);
-                        holder.imageView.setVisibility(VISIBLE);
-                        holder.imageView.setImageDrawable(drawable);
-                    }
-                });
+            String url = getUrl(position);
+            holder.bind(url);
+
+            // images are decoded and cached for the size of the page displaying them
+            int width = holder.getImageWidth();
+            int height = holder.getImageHeight();
+            Drawable cached = mImageCache != null ? mImageCache.get(url, width, height) : null;
+            if (cached != null) {
+                holder.showImage(cached);
+                return;
+            }
+
+            PrefetchEntry prefetched = mPrefetcher.take(url);
+            if (prefetched != null && prefetched.result != null) {
+                holder.showImage(prefetched.result);
+                holder.ownsImage = true;
+                return;
+            }
+
+            holder.page.showProgress();
+
+            if (prefetched != null) {
+                holder.adopt(prefetched);
+            } else if (mImageLoader != null) {
+                holder.load(url, width, height);
             }
         }
 
+        @Override
+        public void onViewRecycled(@NonNull ViewHolder holder) {
+            holder.cancelLoad();
+            holder.releaseImage();
+        }
+
+        public String getUrl(int position) {
+            return position < providerCount
+                    ? provider.getUrl(position)
+                    : urls.get(position - providerCount);
+        }
+
         public void add(String url) {
             urls.add(url);
-            notifyItemInserted(urls.size());
+            notifyItemInserted(getItemCount() - 1);
         }
 
         public void addAll(List<String> urls) {
-            final int startPos = this.urls.size();
+            final int startPos = getItemCount();
             this.urls.addAll(urls);
             notifyItemRangeInserted(startPos, urls.size());
         }
 
+        public void replaceAll(List<String> urls) {
+            int oldCount = getItemCount();
+            provider = null;
+            providerCount = 0;
+            this.urls.clear();
+            this.urls.addAll(urls);
+            notifyReplaced(oldCount);
+        }
+
+        public void setProvider(UrlProvider provider, int count) {
+            int oldCount = getItemCount();
+            this.provider = provider;
+            this.providerCount = count;
+            this.urls.clear();
+            notifyReplaced(oldCount);
+        }
+
+        private void notifyReplaced(int oldCount) {
+            int newCount = getItemCount();
+            int common = Math.min(oldCount, newCount);
+            if (common > 0) {
+                notifyItemRangeChanged(0, common);
+            }
+            if (newCount > oldCount) {
+                notifyItemRangeInserted(oldCount, newCount - oldCount);
+            } else if (oldCount > newCount) {
+                notifyItemRangeRemoved(newCount, oldCount - newCount);
+            }
+        }
+
+        public void removeRange(int position, int itemCount) {
+            if (position < providerCount) {
+                throw new IllegalArgumentException("urls of a UrlProvider cannot be removed, set a new provider instead");
+            }
+            urls.removeRange(position - providerCount, itemCount);
+            notifyItemRangeRemoved(position, itemCount);
+        }
+
         @Override
         public int getItemCount() {
-            return urls.size();
+            return providerCount + urls.size();
         }
 
         public class ViewHolder extends RecyclerView.ViewHolder {
-            private ImageView imageView;
-            private ProgressBar progressBar;
+            private final Page page;
+
+            @Nullable
+            private String boundUrl;
+            @Nullable
+            private HolderCallback callback;
+            @Nullable
+            private Disposable loading;
+            /**
+             * url of the displayed image
+             */
+            @Nullable
+            private String imageUrl;
+            /**
+             * whether the displayed image has been loaded for this holder, rather than shared from the cache
+             */
+            private boolean ownsImage;
+            /**
+             * cache the displayed image has been retained in
+             */
+            @Nullable
+            private GalleryImageCache shownCache;
 
-            public ViewHolder(View itemView) {
+            public ViewHolder(View itemView, Page page) {
                 super(itemView);
+                this.page = page;
+            }
+
+            private void bind(String url) {
+                boundUrl = url;
+                Integer count = boundUrls.get(url);
+                boundUrls.put(url, count != null ? count + 1 : 1);
+            }
+
+            /**
+             * @return width of the page, the width it will be laid out at if it has not been yet
+             */
+            private int getImageWidth() {
+                return itemView.getWidth() > 0 ? itemView.getWidth() : getPageWidth();
+            }
+
+            /**
+             * @return height of the page, the height it will be laid out at if it has not been yet
+             */
+            private int getImageHeight() {
+                return itemView.getHeight() > 0 ? itemView.getHeight() : getPageHeight();
+            }
+
+            private void load(String url, int width, int height) {
+                callback = new HolderCallback(this, url, width, height);
+                Disposable disposable = loadImage(url, width, height, callback);
 
-                imageView = itemView.findViewById(R.id.image_view);
-                progressBar = itemView.findViewById(R.id.progress_bar);
+                // the loader may have delivered synchronously, then there is nothing to cancel
+                if (callback != null) {
+                    loading = disposable;
+                }
+            }
+
+            /**
+             * takes over an image load which has been started by the prefetcher
+             *
+             * @param prefetched in flight prefetch of the bound url
+             */
+            private void adopt(PrefetchEntry prefetched) {
+                callback = new HolderCallback(this, prefetched.url, prefetched.width, prefetched.height);
+                prefetched.target = callback;
+                loading = prefetched.loading;
+            }
+
+            private void cancelLoad() {
+                if (loading != null) {
+                    loading.dispose();
+                    loading = null;
+                }
+                callback = null;
+                if (boundUrl != null) {
+                    // the url may appear more than once, other holders may still be bound to it
+                    Integer count = boundUrls.get(boundUrl);
+                    if (count == null || count <= 1) {
+                        boundUrls.remove(boundUrl);
+                    } else {
+                        boundUrls.put(boundUrl, count - 1);
+                    }
+                    boundUrl = null;
+                }
+            }
+
+            private void onLoadFinished(HolderCallback finished, Drawable drawable) {
+                // ignore late results for urls this holder is no longer bound to
+                if (finished != callback || !finished.url.equals(boundUrl)) {
+                    ReactiveGallery.this.releaseImage(drawable);
+                    return;
+                }
+
+                callback = null;
+                loading = null;
+                showImage(drawable);
+                ownsImage = true;
+            }
+
+            private void showImage(Drawable drawable) {
+                page.showImage(drawable);
+                imageUrl = boundUrl;
+                ownsImage = false;
+                if (mImageCache != null) {
+                    // galleries sharing the cache must not reuse the image while it is shown
+                    mImageCache.retain(drawable);
+                    shownCache = mImageCache;
+                }
+            }
+
+            private void releaseImage() {
+                Drawable drawable = page.getImage();
+                page.clearImage();
+                if (shownCache != null) {
+                    shownCache.release(drawable);
+                    shownCache = null;
+                }
+                if (ownsImage && imageUrl != null) {
+                    ReactiveGallery.this.releaseImage(drawable);
+                }
+                imageUrl = null;
+                ownsImage = false;
+            }
+        }
+
+        private class HolderCallback implements LoadingCallback {
+            private final ViewHolder holder;
+            private final String url;
+            private final int width;
+            private final int height;
+
+            private HolderCallback(ViewHolder holder, String url, int width, int height) {
+                this.holder = holder;
+                this.url = url;
+                this.width = width;
+                this.height = height;
+            }
+
+            @Override
+            public void onLoadFinished(Drawable drawable) {
+                if (mImageCache != null && drawable != null) {
+                    mImageCache.put(url, width, height, drawable);
+                }
+                holder.onLoadFinished(this, drawable);
             }
         }
     }
 
-    private static class Indicators extends LinearLayout {
+    /**
+     * content of a gallery page
+     */
+    interface Page {
+
+        /**
+         * hides the image and shows the progress indicator
+         */
+        void showProgress();
+
+        /**
+         * hides the progress indicator and shows <code>drawable</code>
+         */
+        void showImage(@Nullable Drawable drawable);
+
+        @Nullable
+        Drawable getImage();
+
+        /**
+         * removes the image, without showing the progress indicator
+         */
+        void clearImage();
+
+        ImageView.ScaleType getScaleType();
+    }
+
+    /**
+     * page inflated from <code>list_item_reactive_gallery</code>
+     */
+    private static class InflatedPage implements Page {
+        private final ImageView imageView;
+        private final ProgressBar progressBar;
+
+        private InflatedPage(View view) {
+            imageView = view.findViewById(R.id.image_view);
+            progressBar = view.findViewById(R.id.progress_bar);
+        }
+
+        @Override
+        public void showProgress() {
+            progressBar.setVisibility(VISIBLE);
+            imageView.setVisibility(GONE);
+            imageView.setImageDrawable(null);
+        }
+
+        @Override
+        public void showImage(@Nullable Drawable drawable) {
+            progressBar.setVisibility(GONE);
+            imageView.setVisibility(VISIBLE);
+            imageView.setImageDrawable(drawable);
+        }
+
+        @Nullable
+        @Override
+        public Drawable getImage() {
+            return imageView.getDrawable();
+        }
+
+        @Override
+        public void clearImage() {
+            imageView.setImageDrawable(null);
+        }
+
+        @Override
+        public ImageView.ScaleType getScaleType() {
+            return imageView.getScaleType();
+        }
+    }
+
+    /**
+     * loads the images of the pages around the current page in advance.<br>
+     * Pages which are already bound (e.g. by the RecyclerView's GapWorker) are skipped, pages bound
+     * while their prefetch is in flight take it over instead of loading again.
+     */
+    private class Prefetcher {
+
+        private int window = 1;
+        private final HashMap<String, PrefetchEntry> entries = new HashMap<>();
+
+        void update() {
+            int width = getPageWidth();
+            int height = getPageHeight();
+            if (window == 0 || mImageLoader == null || width <= 0 || height <= 0) {
+                clear();
+                return;
+            }
+
+            int first = Math.max(0, mCurrentPage - window);
+            int last = Math.min(mImageAdapter.getItemCount() - 1, mCurrentPage + window);
+
+            // cancel prefetches which have left the window
+            List<String> windowUrls = new ArrayList<>(last - first + 1);
+            for (int position = first; position <= last; position++) {
+                windowUrls.add(mImageAdapter.getUrl(position));
+            }
+            Iterator<PrefetchEntry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                PrefetchEntry entry = iterator.next();
+                if (!windowUrls.contains(entry.url)) {
+                    entry.cancel();
+                    iterator.remove();
+                }
+            }
+
+            for (int position = first; position <= last; position++) {
+                String url = windowUrls.get(position - first);
+                if (position == mCurrentPage || entries.containsKey(url) || mImageAdapter.boundUrls.containsKey(url)
+                        || (mImageCache != null && mImageCache.contains(url, width, height))) {
+                    continue;
+                }
+
+                PrefetchEntry entry = new PrefetchEntry(url, width, height);
+                entries.put(url, entry);
+                entry.start();
+            }
+        }
+
+        /**
+         * @param url to take the prefetch of
+         * @return the prefetch of <code>url</code>, which is no longer managed by the prefetcher
+         */
+        @Nullable
+        PrefetchEntry take(String url) {
+            return entries.remove(url);
+        }
+
+        void clear() {
+            for (PrefetchEntry entry : entries.values()) {
+                entry.cancel();
+            }
+            entries.clear();
+        }
+    }
+
+    private class PrefetchEntry implements LoadingCallback {
+        private final String url;
+        private final int width;
+        private final int height;
+
+        @Nullable
+        private Disposable loading;
+        @Nullable
+        private Drawable result;
+        /**
+         * callback of the view holder which has taken over this prefetch
+         */
+        @Nullable
+        private LoadingCallback target;
+
+        private PrefetchEntry(String url, int width, int height) {
+            this.url = url;
+            this.width = width;
+            this.height = height;
+        }
+
+        private void start() {
+            Disposable disposable = loadImage(url, width, height, this);
+            if (result == null) {
+                loading = disposable;
+            }
+        }
+
+        private void cancel() {
+            if (loading != null) {
+                loading.dispose();
+                loading = null;
+            }
+            if (result != null) {
+                releaseImage(result);
+                result = null;
+            }
+        }
+
+        @Override
+        public void onLoadFinished(Drawable drawable) {
+            result = drawable;
+            loading = null;
+            if (target != null) {
+                target.onLoadFinished(drawable);
+            } else if (mImageCache != null && drawable != null) {
+                mImageCache.put(url, width, height, drawable);
+            }
+        }
+    }
+
+    /**
+     * page indicator drawing all dots itself, no matter how many pages there are.<br>
+     * If there are more pages than <code>maxVisible</code>, only a window of dots around the
+     * current page is drawn, a <code>maxVisible</code> of 0 draws all dots.
+     */
+    private static class Indicators extends View {
 
         private final Drawable indicatorActive;
         private final Drawable indicatorInactive;
         private final int indicatorSpacing;
-        private List<ImageView> dots = new ArrayList<>();
+        private final int maxVisible;
+        private final int dotWidth;
+        private final int dotHeight;
 
-        public Indicators(Context context, @Nullable Drawable indicatorActive, @Nullable Drawable indicatorInactive, int indicatorSpacing) {
+        private int count;
+        private int page;
+
+        public Indicators(Context context, @Nullable Drawable indicatorActive, @Nullable Drawable indicatorInactive,
+                          int indicatorSpacing, int maxVisible) {
             super(context);
 
             this.indicatorActive = (indicatorActive != null)
@@ -208,9 +1071,12 @@ public class ReactiveGallery extends RelativeLayout {
                     : loadDrawable(R.drawable.indicator_inactive);
 
             this.indicatorSpacing = indicatorSpacing;
+            this.maxVisible = maxVisible > 0 ? maxVisible : Integer.MAX_VALUE;
+            this.dotWidth = Math.max(this.indicatorActive.getIntrinsicWidth(),
+                    this.indicatorInactive.getIntrinsicWidth());
+            this.dotHeight = Math.max(this.indicatorActive.getIntrinsicHeight(),
+                    this.indicatorInactive.getIntrinsicHeight());
 
-            setOrientation(LinearLayout.HORIZONTAL);
-            setGravity(Gravity.CENTER);
             setClickable(false);
         }
 
@@ -224,26 +1090,63 @@ public class ReactiveGallery extends RelativeLayout {
         }
 
         public void addDot() {
-            ImageView dot = new ImageView(getContext());
-            dot.setImageDrawable(indicatorInactive);
-
-            LayoutParams params = new LayoutParams(LayoutParams.WRAP_CONTENT,
-                    LayoutParams.WRAP_CONTENT);
-            params.setMargins(indicatorSpacing, 0, indicatorSpacing, 0);
-
-            dots.add(dot);
-            addView(dot, params);
+            addDots(1);
         }
 
         public void addDots(int count) {
-            for (int i = 0; i < count; i++) {
-                addDot();
+            setCount(this.count + count);
+        }
+
+        public void setCount(int count) {
+            int visibleBefore = getVisibleCount();
+            this.count = count;
+            this.page = Math.max(0, Math.min(page, count - 1));
+
+            if (getVisibleCount() != visibleBefore) {
+                requestLayout();
             }
+            invalidate();
         }
 
         public void setPage(int page) {
-            for (int i = 0; i < dots.size(); i++) {
-                dots.get(i).setImageDrawable((page == i) ? indicatorActive : indicatorInactive);
+            if (page != this.page) {
+                this.page = page;
+                invalidate();
+            }
+        }
+
+        private int getVisibleCount() {
+            return Math.min(count, maxVisible);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            int width = getVisibleCount() * (dotWidth + 2 * indicatorSpacing) + getPaddingLeft() + getPaddingRight();
+            int height = dotHeight + getPaddingTop() + getPaddingBottom();
+            setMeasuredDimension(resolveSize(width, widthMeasureSpec), resolveSize(height, heightMeasureSpec));
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+            int visible = getVisibleCount();
+            if (visible == 0) {
+                return;
+            }
+
+            // window of visible dots, keeping the current page centered where possible
+            int first = Math.max(0, Math.min(page - visible / 2, count - visible));
+            int slotWidth = dotWidth + 2 * indicatorSpacing;
+            int contentWidth = getWidth() - getPaddingLeft() - getPaddingRight();
+            int left = getPaddingLeft() + (contentWidth - visible * slotWidth) / 2;
+            int centerY = getPaddingTop() + (getHeight() - getPaddingTop() - getPaddingBottom()) / 2;
+
+            for (int i = 0; i < visible; i++) {
+                Drawable dot = (first + i == page) ? indicatorActive : indicatorInactive;
+                int centerX = left + i * slotWidth + slotWidth / 2;
+                int halfWidth = dot.getIntrinsicWidth() / 2;
+                int halfHeight = dot.getIntrinsicHeight() / 2;
+                dot.setBounds(centerX - halfWidth, centerY - halfHeight, centerX + halfWidth, centerY + halfHeight);
+                dot.draw(canvas);
             }
         }
     }
@@ -251,15 +1154,64 @@ public class ReactiveGallery extends RelativeLayout {
     public interface ImageLoader {
 
         /**
+         * loads an image without knowing the size it is displayed at. Implement
+         * {@link SizeAwareImageLoader} to decode images at their display size instead.
+         *
          * @param url      the image URL which shall be loaded
-         * @param callback to send the loaded drawable to the image view
+         * @param callback to send the loaded drawable to the image view, must be invoked on the main thread
+         * @return handle to cancel the load once the page has been recycled, <code>null</code> if the
+         * load cannot be cancelled
+         */
+        @Nullable
+        Disposable loadImage(String url, LoadingCallback callback);
+
+    }
+
+    /**
+     * image loader receiving the size and scale type of the page's image view, so images can be
+     * decoded at the resolution they are displayed at rather than at full resolution.
+     */
+    public interface SizeAwareImageLoader extends ImageLoader {
+
+        /**
+         * @param url       the image URL which shall be loaded
+         * @param width     width of the image view in pixels
+         * @param height    height of the image view in pixels
+         * @param scaleType scale type of the image view
+         * @param callback  to send the loaded drawable to the image view, must be invoked on the main thread
+         * @return handle to cancel the load once the page has been recycled, <code>null</code> if the
+         * load cannot be cancelled
+         */
+        @Nullable
+        Disposable loadImage(String url, int width, int height, ImageView.ScaleType scaleType,
+                             LoadingCallback callback);
+
+        /**
+         * called on the main thread with a loaded image which is no longer displayed nor cached,
+         * so its memory may be reused for the next decode
+         *
+         * @param drawable image previously sent to a {@link LoadingCallback}
+         */
+        void releaseImage(Drawable drawable);
+
+    }
+
+    /**
+     * creates the image urls of a gallery on demand, see {@link #setUrlProvider(UrlProvider, int)}
+     */
+    public interface UrlProvider {
+
+        /**
+         * @param position of the page
+         * @return image url of the page, called on the main thread
          */
-        void loadImage(String url, LoadingCallback callback);
+        String getUrl(int position);
 
     }
 
     /**
-     * callback class passed to the imageloader for setting a drawable of an image view
+     * callback class passed to the imageloader for setting a drawable of an image view.<br>
+     * Results arriving after the page has been recycled or rebound are ignored.
      */
     public interface LoadingCallback {
 
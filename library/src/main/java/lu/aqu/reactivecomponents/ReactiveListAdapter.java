@@ -0,0 +1,223 @@
+package lu.aqu.reactivecomponents;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.util.DiffUtil;
+import android.support.v7.widget.RecyclerView;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Consumer;
+import io.reactivex.schedulers.Schedulers;
+import lu.aqu.reactivecomponents.transformers.ReactiveTransformer;
+
+/**
+ * Adapter binding <code>List</code> emissions of an Rx stream to a {@link ReactiveRecyclerView}
+ * without replacing the adapter.<br>
+ * Each list is diffed against the displayed one on a background scheduler and only the resulting
+ * <code>notifyItemRange*</code> updates are dispatched, so bound view holders are kept. A list
+ * arriving while a previous diff is still running supersedes it, outdated diffs are dropped.
+ * <br>
+ * Until the first list has arrived, a ReactiveRecyclerView keeps showing its progress view when
+ * this adapter is set.
+ *
+ * <pre>
+ * recyclerView.setAdapter(houseAdapter);
+ * service.getHouses()
+ *      .compose(ReactiveTransformer.&lt;List&lt;House&gt;&gt;bind(recyclerView))
+ *      .subscribe(houseAdapter);
+ * </pre>
+ *
+ * @param <T>  item type
+ * @param <VH> view holder type
+ */
+public abstract class ReactiveListAdapter<T, VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH>
+        implements Consumer<List<T>>, PendingAdapter {
+
+    private final DiffUtil.ItemCallback<T> mItemCallback;
+    private final Scheduler mDiffScheduler;
+    private final MainThread mMainThread;
+
+    private List<T> mItems = Collections.emptyList();
+    private boolean mHasList;
+    /**
+     * incremented with every submitted list on the main thread, only the latest submission is applied
+     */
+    private volatile int mGeneration;
+
+    /**
+     * latest list passed to {@link #accept(List)} and not submitted yet
+     */
+    private final AtomicReference<List<T>> mPending = new AtomicReference<>();
+    private final Runnable mSubmitPending = new Runnable() {
+        @Override
+        public void run() {
+            submitList(mPending.getAndSet(null));
+        }
+    };
+
+    /**
+     * @param itemCallback to compare items with
+     */
+    protected ReactiveListAdapter(@NonNull DiffUtil.ItemCallback<T> itemCallback) {
+        this(itemCallback, Schedulers.computation());
+    }
+
+    /**
+     * @param itemCallback  to compare items with
+     * @param diffScheduler scheduler to compute diffs on
+     */
+    protected ReactiveListAdapter(@NonNull DiffUtil.ItemCallback<T> itemCallback, @NonNull Scheduler diffScheduler) {
+        mItemCallback = itemCallback;
+        mDiffScheduler = diffScheduler;
+        mMainThread = ReactiveTransformer.getMainThread();
+    }
+
+    /**
+     * submits a new list, may be called from any thread. Lists superseded before the main thread
+     * got to them are skipped.
+     *
+     * @param items to be displayed, must not be modified afterwards
+     */
+    @Override
+    public void accept(@NonNull List<T> items) {
+        // only the latest list is submitted, a post is needed only if none is pending
+        if (mPending.getAndSet(items) == null) {
+            mMainThread.post(mSubmitPending);
+        }
+    }
+
+    /**
+     * submits a new list, must be called from the main thread
+     *
+     * @param items to be displayed, must not be modified afterwards
+     */
+    public void submitList(@Nullable List<T> items) {
+        final List<T> newItems = items != null ? items : Collections.<T>emptyList();
+        final List<T> oldItems = mItems;
+        final int generation = ++mGeneration;
+
+        if (!mHasList) {
+            mHasList = true;
+            mItems = newItems;
+            // always notify the first list, an empty one ends the loading state as well
+            notifyDataSetChanged();
+            return;
+        }
+
+        if (newItems == oldItems) {
+            return;
+        }
+
+        if (oldItems.isEmpty() || newItems.isEmpty()) {
+            // nothing to diff, whole range is inserted or removed
+            mItems = newItems;
+            if (!oldItems.isEmpty()) {
+                notifyItemRangeRemoved(0, oldItems.size());
+            } else if (!newItems.isEmpty()) {
+                notifyItemRangeInserted(0, newItems.size());
+            }
+            return;
+        }
+
+        mDiffScheduler.scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                if (!isLatest(generation)) {
+                    return;
+                }
+
+                final DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffCallback<>(oldItems, newItems,
+                        mItemCallback));
+                mMainThread.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mGeneration) {
+                            mItems = newItems;
+                            result.dispatchUpdatesTo(ReactiveListAdapter.this);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private boolean isLatest(int generation) {
+        // read from the diff thread, only used to skip work which would be dropped anyway
+        return generation == mGeneration;
+    }
+
+    /**
+     * @return true if a list has been submitted yet
+     */
+    public boolean hasList() {
+        return mHasList;
+    }
+
+    @Override
+    public boolean isPending() {
+        return !mHasList;
+    }
+
+    /**
+     * @return the displayed list
+     */
+    @NonNull
+    public List<T> getItems() {
+        return mItems;
+    }
+
+    /**
+     * @param position of the item
+     * @return the displayed item at <code>position</code>
+     */
+    public T getItem(int position) {
+        return mItems.get(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItems.size();
+    }
+
+    private static class DiffCallback<T> extends DiffUtil.Callback {
+        private final List<T> oldItems;
+        private final List<T> newItems;
+        private final DiffUtil.ItemCallback<T> itemCallback;
+
+        private DiffCallback(List<T> oldItems, List<T> newItems, DiffUtil.ItemCallback<T> itemCallback) {
+            this.oldItems = oldItems;
+            this.newItems = newItems;
+            this.itemCallback = itemCallback;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldItems.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newItems.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return itemCallback.areItemsTheSame(oldItems.get(oldItemPosition), newItems.get(newItemPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return itemCallback.areContentsTheSame(oldItems.get(oldItemPosition), newItems.get(newItemPosition));
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return itemCallback.getChangePayload(oldItems.get(oldItemPosition), newItems.get(newItemPosition));
+        }
+    }
+}
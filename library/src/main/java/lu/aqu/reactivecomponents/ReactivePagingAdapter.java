@@ -0,0 +1,490 @@
+package lu.aqu.reactivecomponents;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseArray;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.ProgressBar;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.subscribers.DisposableSubscriber;
+import lu.aqu.reactivecomponents.transformers.ReactiveTransformer;
+
+/**
+ * Adapter loading its items page by page while the user scrolls a {@link ReactiveRecyclerView}.
+ * <br>
+ * The first page is bound to the list's loading state, further pages are requested once the last
+ * visible item is within the prefetch distance of the loaded items and show a footer loading row
+ * instead of the list's progress view. Only a limited number of pages is kept in memory, pages far
+ * from the visible ones are dropped and their items bound as placeholders (<code>null</code>)
+ * until they are scrolled into the prefetch window again.
+ * <br>
+ * All pages except the last one must contain exactly <code>pageSize</code> items, a page with less
+ * items marks the end of the list.
+ *
+ * @param <T>  item type
+ * @param <VH> view holder type of the items
+ */
+public abstract class ReactivePagingAdapter<T, VH extends RecyclerView.ViewHolder>
+        extends RecyclerView.Adapter<RecyclerView.ViewHolder> implements PendingAdapter {
+
+    static final int TYPE_FOOTER = Integer.MIN_VALUE + 2;
+
+    private final PageLoader<T> mLoader;
+    private final int mPageSize;
+    private int mPrefetchDistance;
+    private int mMaxPages = Integer.MAX_VALUE;
+    private final MainThread mMainThread;
+
+    /**
+     * loaded pages by page number, <code>null</code> for dropped pages
+     */
+    private final ArrayList<List<T>> mPages = new ArrayList<>();
+    private int mLastPageSize;
+    private int mRetainedPages;
+    private final SparseArray<Disposable> mLoads = new SparseArray<>();
+    private boolean mEndReached;
+    private boolean mFailed;
+    private boolean mFooterShown;
+
+    @Nullable
+    private ReactiveRecyclerView mRecyclerView;
+    private int mFirstVisible;
+    private int mLastVisible;
+
+    private final RecyclerView.OnScrollListener mScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+            updateVisibleRange();
+            loadRequiredPages();
+        }
+    };
+
+    /**
+     * @param loader   to request pages from
+     * @param pageSize number of items per page
+     */
+    protected ReactivePagingAdapter(@NonNull PageLoader<T> loader, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        mLoader = loader;
+        mPageSize = pageSize;
+        mPrefetchDistance = pageSize;
+        mMainThread = ReactiveTransformer.getMainThread();
+    }
+
+    /**
+     * @param prefetchDistance number of items before the end of the loaded items (or a dropped page)
+     *                         at which the next page is requested, defaults to the page size
+     */
+    public void setPrefetchDistance(int prefetchDistance) {
+        mPrefetchDistance = Math.max(0, prefetchDistance);
+    }
+
+    /**
+     * @param maxPages number of pages kept in memory, at least the pages within the prefetch window
+     *                 around the visible items are kept. Unlimited by default
+     */
+    public void setMaxPagesInMemory(int maxPages) {
+        mMaxPages = Math.max(1, maxPages);
+        dropDistantPages();
+    }
+
+    /**
+     * sets this adapter on <code>recyclerView</code> and requests the first page, bound to the
+     * list's loading state
+     *
+     * @param recyclerView to attach to
+     */
+    public void attachTo(@NonNull ReactiveRecyclerView recyclerView) {
+        detach();
+
+        mRecyclerView = recyclerView;
+        recyclerView.setAdapter(this);
+        recyclerView.addOnScrollListener(mScrollListener);
+
+        if (mPages.isEmpty()) {
+            loadPage(0);
+        }
+    }
+
+    /**
+     * cancels all page requests and detaches from the ReactiveRecyclerView
+     */
+    public void detach() {
+        for (int i = 0; i < mLoads.size(); i++) {
+            mLoads.valueAt(i).dispose();
+        }
+        mLoads.clear();
+
+        if (mRecyclerView != null) {
+            mRecyclerView.removeOnScrollListener(mScrollListener);
+            mRecyclerView = null;
+        }
+    }
+
+    /**
+     * requests pages again after a page request has failed
+     */
+    public void retry() {
+        mFailed = false;
+        if (mPages.isEmpty()) {
+            loadPage(0);
+        } else {
+            loadRequiredPages();
+        }
+    }
+
+    @Override
+    public boolean isPending() {
+        return mPages.isEmpty() && !mFailed;
+    }
+
+    /**
+     * @param position of the item
+     * @return the item at <code>position</code> or <code>null</code> if its page has been dropped
+     */
+    @Nullable
+    public T getItem(int position) {
+        List<T> page = mPages.get(position / mPageSize);
+        return page != null ? page.get(position % mPageSize) : null;
+    }
+
+    /**
+     * @return number of items of all pages loaded so far, including dropped ones
+     */
+    public int getLoadedItemCount() {
+        return mPages.isEmpty() ? 0 : (mPages.size() - 1) * mPageSize + mLastPageSize;
+    }
+
+    @Override
+    public int getItemCount() {
+        return getLoadedItemCount() + (mFooterShown ? 1 : 0);
+    }
+
+    @Override
+    public final int getItemViewType(int position) {
+        return position >= getLoadedItemCount() ? TYPE_FOOTER : getPagedItemViewType(position);
+    }
+
+    /**
+     * @param position of the item
+     * @return view type of the item at <code>position</code>
+     */
+    protected int getPagedItemViewType(int position) {
+        return 0;
+    }
+
+    @NonNull
+    @Override
+    public final RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        if (viewType == TYPE_FOOTER) {
+            return new RecyclerView.ViewHolder(onCreateFooterView(parent)) {
+            };
+        }
+        return onCreateItemViewHolder(parent, viewType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        if (holder.getItemViewType() != TYPE_FOOTER) {
+            onBindItemViewHolder((VH) holder, getItem(position), position);
+        }
+    }
+
+    /**
+     * @param parent   the list
+     * @param viewType of the item
+     * @return a new view holder for items of <code>viewType</code>
+     */
+    @NonNull
+    protected abstract VH onCreateItemViewHolder(@NonNull ViewGroup parent, int viewType);
+
+    /**
+     * @param holder   to bind
+     * @param item     to bind, <code>null</code> if the item's page has been dropped and is reloading
+     * @param position of the item
+     */
+    protected abstract void onBindItemViewHolder(@NonNull VH holder, @Nullable T item, int position);
+
+    /**
+     * @param parent the list
+     * @return the footer loading row displayed while the next page is requested
+     */
+    @NonNull
+    protected View onCreateFooterView(@NonNull ViewGroup parent) {
+        FrameLayout container = new FrameLayout(parent.getContext());
+        container.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT));
+        container.addView(new ProgressBar(parent.getContext()), new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT, Gravity.CENTER));
+        return container;
+    }
+
+    private void updateVisibleRange() {
+        RecyclerView.LayoutManager layoutManager = mRecyclerView != null ? mRecyclerView.getLayoutManager() : null;
+        if (layoutManager == null || layoutManager.getChildCount() == 0) {
+            return;
+        }
+
+        int first = Integer.MAX_VALUE;
+        int last = -1;
+        for (int i = 0; i < layoutManager.getChildCount(); i++) {
+            View child = layoutManager.getChildAt(i);
+            // positions of the LayoutManager include the state slot, the footer is no item either
+            int position = child != null
+                    ? mRecyclerView.toItemAdapterPosition(layoutManager.getPosition(child))
+                    : RecyclerView.NO_POSITION;
+            if (position != RecyclerView.NO_POSITION && position < getLoadedItemCount()) {
+                first = Math.min(first, position);
+                last = Math.max(last, position);
+            }
+        }
+
+        if (last >= 0) {
+            mFirstVisible = first;
+            mLastVisible = last;
+        }
+    }
+
+    /**
+     * requests the next page and dropped pages within the prefetch window, drops distant pages
+     */
+    private void loadRequiredPages() {
+        if (mPages.isEmpty() || mFailed) {
+            return;
+        }
+
+        if (!mEndReached && mLastVisible + mPrefetchDistance >= getLoadedItemCount() - 1) {
+            loadPage(mPages.size());
+        }
+
+        int firstPage = getFirstRequiredPage();
+        int lastPage = getLastRequiredPage();
+        for (int page = firstPage; page <= lastPage; page++) {
+            if (mPages.get(page) == null) {
+                loadPage(page);
+            }
+        }
+
+        dropDistantPages();
+    }
+
+    private int getFirstRequiredPage() {
+        return Math.max(0, (mFirstVisible - mPrefetchDistance) / mPageSize);
+    }
+
+    private int getLastRequiredPage() {
+        return Math.min(mPages.size() - 1, (mLastVisible + mPrefetchDistance) / mPageSize);
+    }
+
+    /**
+     * drops the pages farthest from the visible items until at most <code>mMaxPages</code> are kept
+     */
+    private void dropDistantPages() {
+        int firstRequired = getFirstRequiredPage();
+        int lastRequired = getLastRequiredPage();
+
+        while (mRetainedPages > mMaxPages) {
+            int farthest = -1;
+            int farthestDistance = 0;
+            for (int page = 0; page < mPages.size(); page++) {
+                int distance = page < firstRequired
+                        ? firstRequired - page
+                        : page - lastRequired;
+                if (mPages.get(page) != null && distance > farthestDistance) {
+                    farthest = page;
+                    farthestDistance = distance;
+                }
+            }
+
+            if (farthest < 0) {
+                // all retained pages are within the prefetch window
+                return;
+            }
+
+            int size = mPages.get(farthest).size();
+            mPages.set(farthest, null);
+            mRetainedPages--;
+            // a page streaming updates would be restored by its next emission
+            cancelLoad(farthest);
+            notifyItemRangeChanged(farthest * mPageSize, size);
+        }
+    }
+
+    private void loadPage(int page) {
+        if (mLoads.get(page) != null) {
+            return;
+        }
+
+        Flowable<List<T>> request = mLoader.loadPage(page, mPageSize);
+        if (page == 0 && mRecyclerView != null) {
+            request = request.compose(ReactiveTransformer.<List<T>>bind(mRecyclerView));
+        } else if (page == mPages.size()) {
+            setFooterShown(true);
+        }
+
+        // registered before subscribing, a request may terminate while subscribing
+        PageSubscriber subscriber = new PageSubscriber(page);
+        mLoads.put(page, subscriber);
+        request.subscribe(subscriber);
+    }
+
+    /**
+     * cancels the request of <code>page</code>, if any
+     */
+    private void cancelLoad(int page) {
+        Disposable load = mLoads.get(page);
+        if (load != null) {
+            mLoads.remove(page);
+            load.dispose();
+        }
+    }
+
+    private void onPageLoaded(int page, List<T> items) {
+        int start = page * mPageSize;
+        if (page >= mPages.size()) {
+            setFooterShown(false);
+            boolean first = mPages.isEmpty();
+
+            mPages.add(items);
+            mRetainedPages++;
+            mLastPageSize = items.size();
+            mEndReached = items.size() < mPageSize;
+
+            if (first) {
+                // always notify the first page, an empty one ends the loading state as well
+                notifyDataSetChanged();
+            } else {
+                notifyItemRangeInserted(start, items.size());
+            }
+        } else {
+            int oldSize = mPages.get(page) != null
+                    ? mPages.get(page).size()
+                    : (page == mPages.size() - 1 ? mLastPageSize : mPageSize);
+            if (mPages.get(page) == null) {
+                mRetainedPages++;
+            }
+            mPages.set(page, items);
+
+            notifyItemRangeChanged(start, Math.min(oldSize, items.size()));
+            if (page == mPages.size() - 1) {
+                mLastPageSize = items.size();
+                mEndReached = items.size() < mPageSize;
+                if (items.size() > oldSize) {
+                    notifyItemRangeInserted(start + oldSize, items.size() - oldSize);
+                } else if (items.size() < oldSize) {
+                    notifyItemRangeRemoved(start + items.size(), oldSize - items.size());
+                }
+            }
+        }
+
+        loadRequiredPages();
+    }
+
+    private void onPageFailed(int page) {
+        mFailed = true;
+        onPageTerminated(page);
+        if (mPages.isEmpty()) {
+            // no longer pending, lets the list leave its progress view
+            notifyDataSetChanged();
+        }
+    }
+
+    private void onPageTerminated(int page) {
+        mLoads.remove(page);
+        if (page >= mPages.size()) {
+            setFooterShown(false);
+        }
+    }
+
+    private void setFooterShown(boolean shown) {
+        if (shown != mFooterShown) {
+            mFooterShown = shown;
+            if (shown) {
+                notifyItemInserted(getLoadedItemCount());
+            } else {
+                notifyItemRemoved(getLoadedItemCount());
+            }
+        }
+    }
+
+    /**
+     * request of a single page, its results are dropped once the request has been cancelled
+     */
+    private class PageSubscriber extends DisposableSubscriber<List<T>> {
+        private final int page;
+
+        private PageSubscriber(int page) {
+            this.page = page;
+        }
+
+        /**
+         * @return true if this request has not been cancelled or replaced, main thread only
+         */
+        private boolean isCurrent() {
+            return mLoads.get(page) == this;
+        }
+
+        @Override
+        public void onNext(final List<T> items) {
+            mMainThread.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (isCurrent()) {
+                        onPageLoaded(page, items);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            mMainThread.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (isCurrent()) {
+                        onPageFailed(page);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void onComplete() {
+            mMainThread.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (isCurrent()) {
+                        onPageTerminated(page);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * loads pages of items
+     *
+     * @param <T> item type
+     */
+    public interface PageLoader<T> {
+
+        /**
+         * @param page     number of the page to load, starting at 0
+         * @param pageSize number of items per page
+         * @return Flowable emitting the page's items, may emit updated contents of the page
+         */
+        Flowable<List<T>> loadPage(int page, int pageSize);
+    }
+}
@@ -2,12 +2,18 @@ package lu.aqu.reactivecomponents;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
+import android.util.SparseIntArray;
 import android.util.TypedValue;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
@@ -18,14 +24,34 @@ import android.widget.TextView;
 
 import java.util.ArrayList;
 
+import lu.aqu.reactivecomponents.metrics.ComponentMetrics;
+import lu.aqu.reactivecomponents.metrics.MeteredComponent;
+import lu.aqu.reactivecomponents.metrics.ReactiveMetrics;
+
 /**
  * RecyclerView supporting loading and empty view state
  * the list is considered to be loading, if no adapter has been set yet
  * <br>
  * if an adapter has been set the view will either display the emptyView (if set)
  * or the list itself, if itemCount > 0
+ * <br>
+ * in {@link #STATE_MODE_SWAP} (default) the progress and empty views replace the item adapter,
+ * in {@link #STATE_MODE_SLOT} the item adapter stays attached and the progress and empty views are
+ * shown in a slot after the items, so item view holders survive refresh cycles
+ * <br>
+ * while {@link ReactiveMetrics} are enabled, state transitions and adapter swaps are recorded under
+ * the tag set by {@link #setMetricsTag(String)}
  */
-public class ReactiveRecyclerView extends RecyclerView implements ReactiveComponent {
+public class ReactiveRecyclerView extends RecyclerView implements ReactiveComponent, MeteredComponent {
+
+    /**
+     * progress and empty view are displayed by swapping adapters
+     */
+    public static final int STATE_MODE_SWAP = 0;
+    /**
+     * progress and empty view are displayed in a slot after the items, the item adapter stays attached
+     */
+    public static final int STATE_MODE_SLOT = 1;
 
     private SingleViewAdapter mEmptyAdapter;
     private SingleViewAdapter mProgressAdapter;
@@ -36,27 +62,90 @@ public class ReactiveRecyclerView extends RecyclerView implements ReactiveCompon
     private Adapter mItemAdapter;
     private boolean mHasFixedSize;
 
+    private int mStateMode = STATE_MODE_SWAP;
+    @Nullable
+    private StateSlotAdapter mSlotAdapter;
+    private boolean mItemExtrasEnabled;
+
+    @Nullable
+    private String mMetricsTag;
+
+    /**
+     * state shown, only real transitions are applied to the view
+     */
+    private final ViewStateMachine mViewState = new ViewStateMachine();
+
+    /**
+     * RecycledViewPool's default capacity per view type
+     */
+    private static final int DEFAULT_POOL_CAPACITY = 5;
+
+    /**
+     * pool capacities raised by this view, the pool doesn't expose them
+     */
+    private final SparseIntArray mPoolCapacities = new SparseIntArray();
+
+    @Nullable
+    private ArrayList<PrewarmRequest> mPrewarmRequests;
     @Nullable
-    private ArrayList<ItemDecoration> mItemDecorationCache;
+    private ArrayList<ViewHolder> mPrewarmedHolders;
+    private boolean mPrewarmScheduled;
+
+    private final MessageQueue.IdleHandler mPrewarmIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            mPrewarmScheduled = prewarmNextViewHolder();
+            return mPrewarmScheduled;
+        }
+    };
+
+    /**
+     * item decorations and listeners, attached to the parent once and skipped while single views
+     * are displayed
+     */
     @Nullable
-    private ArrayList<OnScrollListener> mScrollListenerCache;
+    private ItemDecorations mItemDecorations;
     @Nullable
-    private ArrayList<OnItemTouchListener> mItemOnTouchListenerCache;
+    private ScrollListeners mScrollListeners;
+    @Nullable
+    private ItemTouchListeners mItemTouchListeners;
+    private boolean mInvalidateItemExtrasPosted;
+
+    /**
+     * invalidates the item decorations after a layout pass, during which they cannot be invalidated
+     */
+    private final Runnable mInvalidateItemExtras = new Runnable() {
+        @Override
+        public void run() {
+            mInvalidateItemExtrasPosted = false;
+            invalidateItemExtras();
+        }
+    };
 
     private final AdapterDataObserver mAdapterObserver = new AdapterDataObserver() {
         @Override
         public void onChanged() {
-            finishLoading();
+            onItemsRemoved();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            onItemsAdded();
         }
 
         @Override
         public void onItemRangeInserted(int positionStart, int itemCount) {
-            finishLoading();
+            onItemsAdded();
         }
 
         @Override
         public void onItemRangeRemoved(int positionStart, int itemCount) {
-            finishLoading();
+            onItemsRemoved();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            onItemsAdded();
         }
     };
 
@@ -75,6 +164,7 @@ public class ReactiveRecyclerView extends RecyclerView implements ReactiveCompon
         final String emptyText;
         final Drawable emptyDrawable;
         Integer textSize = null;
+        final int stateMode;
         try {
             emptyText = a.getString(R.styleable.ReactiveRecyclerView_emptyText);
             if (a.hasValue(R.styleable.ReactiveRecyclerView_emptyTextSize)) {
@@ -84,15 +174,17 @@ public class ReactiveRecyclerView extends RecyclerView implements ReactiveCompon
 
             mAutoShowProgress = a.getBoolean(R.styleable.ReactiveRecyclerView_autoShowProgress, true);
             mAutoHideProgress = a.getBoolean(R.styleable.ReactiveRecyclerView_autoHideProgress, true);
+            stateMode = a.getInt(R.styleable.ReactiveRecyclerView_stateMode, STATE_MODE_SWAP);
         } finally {
             a.recycle();
         }
 
         setProgressView(new ProgressBar(getContext(), null, android.R.attr.progressBarStyleLarge));
         setEmptyView(buildEmptyView(emptyDrawable, emptyText, textSize));
+        setStateMode(stateMode);
 
         if (mAutoShowProgress) {
-            showProgressView();
+            setViewState(ViewStateMachine.STATE_PROGRESS);
         }
     }
 
@@ -116,31 +208,118 @@ public class ReactiveRecyclerView extends RecyclerView implements ReactiveCompon
 
     @Override
     public void setAdapter(Adapter adapter) {
-        unregisterAdapterObserver();
+        replaceItemAdapter(adapter);
 
-        mItemAdapter = adapter;
-        registerAdapterObserver();
-
-        if (mAutoHideProgress) {
+        if (mAutoHideProgress && !isPending(adapter)) {
             finishLoading();
         }
+        showCurrentItemAdapter();
     }
 
     @Override
     public void swapAdapter(Adapter adapter, boolean removeAndRecycleExistingViews) {
         boolean itemViewShowing = isItemViewShowing();
-        unregisterAdapterObserver();
+        replaceItemAdapter(adapter);
+
+        if (mSlotAdapter != null) {
+            if (!itemViewShowing && mAutoHideProgress && !isPending(adapter)) {
+                finishLoading();
+            }
+        } else if (itemViewShowing && adapter != null) {
+            super.swapAdapter(mItemAdapter, removeAndRecycleExistingViews);
+            recordAdapterSwap();
+        } else if (mAutoHideProgress && !isPending(adapter)) {
+            finishLoading();
+        }
+        showCurrentItemAdapter();
+    }
 
+    /**
+     * sets <code>mItemAdapter</code> and moves the adapter observer, unless <code>adapter</code>
+     * is set already
+     */
+    private void replaceItemAdapter(@Nullable Adapter adapter) {
+        if (adapter == mItemAdapter) {
+            // re-registering would move mAdapterObserver behind the slot adapter's observer
+            return;
+        }
+
+        unregisterAdapterObserver();
         mItemAdapter = adapter;
         registerAdapterObserver();
+        if (mSlotAdapter != null) {
+            // registered after mAdapterObserver, so the slot adapter is notified first (observers are
+            // notified in reverse order) and forwards item changes before the view state is updated
+            setSlotItemAdapter(adapter);
+        }
+    }
 
-        if (itemViewShowing) {
-            super.swapAdapter(mItemAdapter, removeAndRecycleExistingViews);
-        } else if (mAutoHideProgress) {
+    /**
+     * sets the item adapter of the slot adapter, taking over its stable ids
+     */
+    private void setSlotItemAdapter(@Nullable Adapter adapter) {
+        boolean stableIds = adapter != null && adapter.hasStableIds();
+        if (stableIds == mSlotAdapter.hasStableIds()) {
+            mSlotAdapter.setItemAdapter(adapter);
+            return;
+        }
+
+        // stable ids can only be changed while the slot adapter is not observed
+        boolean attached = super.getAdapter() == mSlotAdapter;
+        if (attached) {
+            setParentAdapter(null);
+        }
+        mSlotAdapter.setItemAdapter(adapter);
+        mSlotAdapter.setHasStableIds(stableIds);
+        if (attached) {
+            setParentAdapter(mSlotAdapter);
+        }
+    }
+
+    /**
+     * replaces the displayed item adapter by <code>mItemAdapter</code>, if the items are shown
+     * already (a state transition does not take place then)
+     */
+    private void showCurrentItemAdapter() {
+        if (!isItemViewShowing()) {
+            return;
+        }
+
+        if (mItemAdapter == null) {
+            setViewState(ViewStateMachine.STATE_EMPTY);
+        } else if (mSlotAdapter == null && super.getAdapter() != mItemAdapter) {
+            setParentAdapter(mItemAdapter);
+        }
+    }
+
+    /**
+     * item adapter notification which cannot have emptied the adapter, nothing to do while the
+     * items are shown
+     */
+    private void onItemsAdded() {
+        if (!isItemViewShowing()) {
             finishLoading();
         }
     }
 
+    /**
+     * item adapter notification which may have emptied the adapter
+     */
+    private void onItemsRemoved() {
+        if (!isItemViewShowing() || mItemAdapter.getItemCount() == 0) {
+            finishLoading();
+        }
+    }
+
+    /**
+     * @param adapter to check
+     * @return true if <code>adapter</code> is a {@link PendingAdapter} which has not received its
+     * content yet, it will notify its observers once it has
+     */
+    private static boolean isPending(@Nullable Adapter adapter) {
+        return adapter instanceof PendingAdapter && ((PendingAdapter) adapter).isPending();
+    }
+
     /**
      * registers adapter observer to current mItemAdapter
      */
@@ -165,12 +344,23 @@ public class ReactiveRecyclerView extends RecyclerView implements ReactiveCompon
      * @param progressView view to be displayed when no adapter has been asigned yet
      */
     public void setProgressView(@NonNull View progressView) {
-        boolean redrawRequired = isLoading();
-        mProgressAdapter = new SingleViewAdapter(progressView);
+        mProgressAdapter = new SingleViewAdapter(progressView, StateSlotAdapter.TYPE_PROGRESS);
+
+        if (isLoading()) {
+            applyViewState();
+        }
+    }
 
-        if (redrawRequired) {
-            showProgressView();
+    /**
+     * @param position adapter position in the underlying RecyclerView, e.g. of a LayoutManager child
+     * @return the position in the item adapter, {@link #NO_POSITION} for the progress or empty view
+     */
+    int toItemAdapterPosition(int position) {
+        Adapter shown = super.getAdapter();
+        if (mSlotAdapter != null && shown == mSlotAdapter) {
+            return mSlotAdapter.toItemPosition(position);
         }
+        return shown != null && shown == mItemAdapter ? position : NO_POSITION;
     }
 
     /**
@@ -210,38 +400,99 @@ public class ReactiveRecyclerView extends RecyclerView implements ReactiveCompon
      * @param emptyView view to be displayed when adapter is empty
      */
     public void setEmptyView(@NonNull View emptyView) {
-        boolean redrawRequired = isEmptyViewShowing();
-        mEmptyAdapter = new SingleViewAdapter(emptyView);
-        if (redrawRequired) {
-            super.setAdapter(mEmptyAdapter);
+        mEmptyAdapter = new SingleViewAdapter(emptyView, StateSlotAdapter.TYPE_EMPTY);
+        if (isEmptyViewShowing()) {
+            applyViewState();
         }
     }
 
-    private void finishLoading() {
-        if (mItemAdapter != null && mItemAdapter.getItemCount() > 0) {
-            showItemView();
-        } else {
-            showEmptyView();
+    /**
+     * sets how progress and empty view are displayed
+     *
+     * @param stateMode either {@link #STATE_MODE_SWAP} or {@link #STATE_MODE_SLOT}
+     */
+    public void setStateMode(int stateMode) {
+        if (stateMode == mStateMode) {
+            return;
         }
+
+        mStateMode = stateMode;
+
+        if (stateMode == STATE_MODE_SLOT) {
+            mSlotAdapter = new StateSlotAdapter();
+            setSlotItemAdapter(mItemAdapter);
+        } else if (mSlotAdapter != null) {
+            mSlotAdapter.setItemAdapter(null);
+            mSlotAdapter = null;
+            setParentAdapter(null);
+        }
+
+        // same state, shown the other way
+        applyViewState();
     }
 
-    private void showItemView() {
-        if (!isItemViewShowing()) {
-            showItemDecorations();
-            attachOnScrollListeners();
-            attachOnItemTouchListeners();
-            super.setHasFixedSize(mHasFixedSize);
+    /**
+     * @return either {@link #STATE_MODE_SWAP} or {@link #STATE_MODE_SLOT}
+     */
+    public int getStateMode() {
+        return mStateMode;
+    }
 
-            super.setAdapter(mItemAdapter);
+    /**
+     * shows the items or the empty view, the progress view stays while the item adapter is pending
+     * as it notifies once its content has arrived, e.g. when the loading state is released before
+     * the first page has been posted to the adapter
+     */
+    private void finishLoading() {
+        if (isPending(mItemAdapter)) {
+            return;
         }
+
+        setViewState(mItemAdapter != null && mItemAdapter.getItemCount() > 0
+                ? ViewStateMachine.STATE_ITEMS
+                : ViewStateMachine.STATE_EMPTY);
     }
 
-    private void showEmptyView() {
-        showSingleView(mEmptyAdapter);
+    /**
+     * moves to <code>state</code> and updates the view, unless <code>state</code> is shown already
+     *
+     * @param state one of the {@link ViewStateMachine} states
+     */
+    private void setViewState(int state) {
+        if (mViewState.moveTo(state)) {
+            applyViewState();
+            recordTransition(mViewState.getPreviousState(), state);
+        }
     }
 
-    private void showProgressView() {
-        showSingleView(mProgressAdapter);
+    /**
+     * updates the view to the current state
+     */
+    private void applyViewState() {
+        switch (mViewState.getState()) {
+            case ViewStateMachine.STATE_ITEMS:
+                showItemView();
+                break;
+            case ViewStateMachine.STATE_PROGRESS:
+                showSingleView(mProgressAdapter);
+                break;
+            case ViewStateMachine.STATE_EMPTY:
+                showSingleView(mEmptyAdapter);
+                break;
+        }
+    }
+
+    private void showItemView() {
+        setItemExtrasEnabled(true);
+        super.setHasFixedSize(mHasFixedSize);
+
+        if (mSlotAdapter != null) {
+            mSlotAdapter.setSlotAdapter(null);
+            attachSlotAdapter();
+        } else {
+            setParentAdapter(mItemAdapter);
+        }
+        releasePrewarmedViewHolders();
     }
 
     /**
@@ -250,11 +501,83 @@ public class ReactiveRecyclerView extends RecyclerView implements ReactiveCompon
      * @param adapter to show
      */
     private void showSingleView(Adapter adapter) {
-        hideItemDecorations();
-        detachOnScrollListeners();
-        detachOnItemTouchListeners();
         super.setHasFixedSize(false);
+
+        if (mSlotAdapter != null) {
+            // items stay in place, so do their decorations and listeners
+            setItemExtrasEnabled(true);
+            mSlotAdapter.setSlotAdapter(adapter);
+            attachSlotAdapter();
+        } else {
+            setItemExtrasEnabled(false);
+            setParentAdapter(adapter);
+        }
+    }
+
+    private void attachSlotAdapter() {
+        if (super.getAdapter() != mSlotAdapter) {
+            setParentAdapter(mSlotAdapter);
+        }
+    }
+
+    /**
+     * sets the adapter of the underlying RecyclerView
+     */
+    private void setParentAdapter(@Nullable Adapter adapter) {
         super.setAdapter(adapter);
+        recordAdapterSwap();
+    }
+
+    private void recordTransition(int from, int to) {
+        if (from != to) {
+            ComponentMetrics metrics = ReactiveMetrics.of(this);
+            if (metrics != null) {
+                metrics.recordTransition(from, to);
+            }
+        }
+    }
+
+    private void recordAdapterSwap() {
+        ComponentMetrics metrics = ReactiveMetrics.of(this);
+        if (metrics != null) {
+            metrics.recordAdapterSwap();
+        }
+    }
+
+    /**
+     * enables or skips item decorations and listeners, invalidating the decorations once
+     *
+     * @param enabled whether items are displayed
+     */
+    private void setItemExtrasEnabled(boolean enabled) {
+        if (enabled == mItemExtrasEnabled) {
+            return;
+        }
+
+        mItemExtrasEnabled = enabled;
+        if (mScrollListeners != null) {
+            mScrollListeners.enabled = enabled;
+        }
+        if (mItemTouchListeners != null) {
+            mItemTouchListeners.enabled = enabled;
+        }
+        if (mItemDecorations != null) {
+            mItemDecorations.enabled = enabled;
+            invalidateItemExtras();
+        }
+    }
+
+    /**
+     * recomputes item offsets and redraws the decorations, once the current layout pass is done if
+     * called during one
+     */
+    private void invalidateItemExtras() {
+        if (!isComputingLayout()) {
+            invalidateItemDecorations();
+        } else if (!mInvalidateItemExtrasPosted) {
+            mInvalidateItemExtrasPosted = true;
+            post(mInvalidateItemExtras);
+        }
     }
 
     @Override
@@ -274,7 +597,7 @@ public class ReactiveRecyclerView extends RecyclerView implements ReactiveCompon
     @Override
     public void setIsLoading(boolean loading) {
         if (loading) {
-            showProgressView();
+            setViewState(ViewStateMachine.STATE_PROGRESS);
         } else {
             finishLoading();
         }
@@ -282,18 +605,34 @@ public class ReactiveRecyclerView extends RecyclerView implements ReactiveCompon
 
     @Override
     public boolean isLoading() {
-        return super.getAdapter() == mProgressAdapter;
+        return mViewState.isLoading();
     }
 
     /**
      * @return true if the empty view is showing, false otherwise
      */
     public boolean isEmptyViewShowing() {
-        return super.getAdapter() == mEmptyAdapter;
+        return mViewState.getState() == ViewStateMachine.STATE_EMPTY;
     }
 
     private boolean isItemViewShowing() {
-        return mItemAdapter != null && mItemAdapter == super.getAdapter();
+        return mViewState.getState() == ViewStateMachine.STATE_ITEMS;
+    }
+
+    /**
+     * sets the tag {@link ReactiveMetrics} of this view are recorded under, defaults to the class
+     * name. Lists sharing a tag share their metrics.
+     *
+     * @param tag of the metrics, <code>null</code> for the class name
+     */
+    public void setMetricsTag(@Nullable String tag) {
+        mMetricsTag = tag;
+    }
+
+    @Nullable
+    @Override
+    public String getMetricsTag() {
+        return mMetricsTag;
     }
 
     /**
@@ -316,22 +655,177 @@ public class ReactiveRecyclerView extends RecyclerView implements ReactiveCompon
         mAutoHideProgress = autoHideProgress;
     }
 
+    /**
+     * creates <code>count</code> view holders of <code>viewType</code> while the progress view is
+     * showing, one per idle main thread run. The view holders are moved to the RecycledViewPool
+     * once the items are displayed, so the first item frame does not have to inflate them.<br>
+     * The pool's capacity for <code>viewType</code> is raised to fit the pooled and prewarmed view
+     * holders, if necessary.
+     * To share the prewarmed view holders, set the same pool on several instances via
+     * {@link #setRecycledViewPool(RecycledViewPool)}.
+     * <br>
+     * must be called from the main thread
+     *
+     * @param adapter  creating the view holders, usually the (still empty) item adapter
+     * @param viewType of the view holders to create
+     * @param count    number of view holders to create
+     */
+    public void prewarmViewHolders(@NonNull Adapter adapter, int viewType, int count) {
+        if (count <= 0) {
+            return;
+        }
+
+        if (mPrewarmRequests == null) {
+            mPrewarmRequests = new ArrayList<>();
+        }
+        mPrewarmRequests.add(new PrewarmRequest(adapter, viewType, count));
+
+        if (!mPrewarmScheduled) {
+            mPrewarmScheduled = true;
+            Looper.myQueue().addIdleHandler(mPrewarmIdleHandler);
+        }
+    }
+
+    /**
+     * creates the next requested view holder
+     *
+     * @return true if there are view holders left to create
+     */
+    private boolean prewarmNextViewHolder() {
+        if (mPrewarmRequests == null || mPrewarmRequests.isEmpty()) {
+            return false;
+        }
+
+        if (!isLoading()) {
+            // items are being laid out already, don't compete with them
+            mPrewarmRequests.clear();
+            return false;
+        }
+
+        PrewarmRequest request = mPrewarmRequests.get(0);
+        ViewHolder holder = request.adapter.createViewHolder(this, request.viewType);
+        if (--request.remaining == 0) {
+            mPrewarmRequests.remove(0);
+        }
+
+        if (mPrewarmedHolders == null) {
+            mPrewarmedHolders = new ArrayList<>();
+        }
+        mPrewarmedHolders.add(holder);
+
+        if (mSlotAdapter != null) {
+            // the adapter is never swapped in slot mode, the pool won't be cleared
+            releasePrewarmedViewHolders();
+        }
+
+        return !mPrewarmRequests.isEmpty();
+    }
+
+    /**
+     * moves prewarmed view holders to the RecycledViewPool
+     */
+    private void releasePrewarmedViewHolders() {
+        if (mPrewarmedHolders == null || mPrewarmedHolders.isEmpty()) {
+            return;
+        }
+
+        RecycledViewPool pool = getRecycledViewPool();
+        SparseIntArray counts = new SparseIntArray();
+        for (ViewHolder holder : mPrewarmedHolders) {
+            counts.put(holder.getItemViewType(), counts.get(holder.getItemViewType()) + 1);
+        }
+        for (int i = 0; i < counts.size(); i++) {
+            int viewType = counts.keyAt(i);
+            // holders pooled already must not be pushed out by the batch
+            int required = pool.getRecycledViewCount(viewType) + counts.valueAt(i);
+            int capacity = mPoolCapacities.get(viewType, DEFAULT_POOL_CAPACITY);
+            if (required > capacity) {
+                pool.setMaxRecycledViews(viewType, required);
+                mPoolCapacities.put(viewType, required);
+            }
+        }
+
+        for (ViewHolder holder : mPrewarmedHolders) {
+            pool.putRecycledView(holder);
+        }
+        mPrewarmedHolders.clear();
+    }
+
+    @Override
+    public void setRecycledViewPool(@Nullable RecycledViewPool pool) {
+        super.setRecycledViewPool(pool);
+        mPoolCapacities.clear();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (!mPrewarmScheduled && mPrewarmRequests != null && !mPrewarmRequests.isEmpty()) {
+            mPrewarmScheduled = true;
+            Looper.myQueue().addIdleHandler(mPrewarmIdleHandler);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (mPrewarmScheduled) {
+            Looper.myQueue().removeIdleHandler(mPrewarmIdleHandler);
+            mPrewarmScheduled = false;
+        }
+    }
+
+    private static class PrewarmRequest {
+        private final Adapter adapter;
+        private final int viewType;
+        private int remaining;
+
+        private PrewarmRequest(Adapter adapter, int viewType, int count) {
+            this.adapter = adapter;
+            this.viewType = viewType;
+            this.remaining = count;
+        }
+    }
+
     private static class SingleViewAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
-        private View view;
+        private final View view;
+        private final int viewType;
 
-        private SingleViewAdapter(View view) {
+        private SingleViewAdapter(View view, int viewType) {
             this.view = view;
+            this.viewType = viewType;
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return viewType;
         }
 
         @NonNull
         @Override
         public RecyclerView.ViewHolder onCreateViewHolder(@NonNull final ViewGroup parent, int viewType) {
             // nest inside container to not change the received layout
-            final RelativeLayout container = new RelativeLayout(parent.getContext());
+            RelativeLayout container = new RelativeLayout(parent.getContext());
             container.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
                     ViewGroup.LayoutParams.MATCH_PARENT));
 
-            if (view.getParent() != null && view.getParent() instanceof ViewGroup) {
+            return new RecyclerView.ViewHolder(container) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+            // the view belongs to the container of the holder bound last, e.g. when a new holder is
+            // created while the previous one is still animating out
+            RelativeLayout container = (RelativeLayout) holder.itemView;
+            if (view.getParent() == container) {
+                return;
+            }
+
+            // the holder is recycled through the pool, which may be shared with other instances
+            // using the same view type, drop the view it held there
+            container.removeAllViews();
+            if (view.getParent() instanceof ViewGroup) {
                 ((ViewGroup) view.getParent()).removeView(view);
             }
 
@@ -339,13 +833,6 @@ public class ReactiveRecyclerView extends RecyclerView implements ReactiveCompon
                     RelativeLayout.LayoutParams.WRAP_CONTENT, RelativeLayout.LayoutParams.WRAP_CONTENT);
             layoutParams.addRule(RelativeLayout.CENTER_IN_PARENT, RelativeLayout.TRUE);
             container.addView(view, layoutParams);
-
-            return new RecyclerView.ViewHolder(container) {
-            };
-        }
-
-        @Override
-        public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         }
 
         @Override
@@ -356,122 +843,217 @@ public class ReactiveRecyclerView extends RecyclerView implements ReactiveCompon
 
     @Override
     public void addItemDecoration(ItemDecoration decor, int index) {
-        if (mItemDecorationCache == null) {
-            mItemDecorationCache = new ArrayList<>();
+        if (mItemDecorations == null) {
+            mItemDecorations = new ItemDecorations();
+            mItemDecorations.enabled = mItemExtrasEnabled;
+            super.addItemDecoration(mItemDecorations, -1);
         }
 
-        // cache itemdecorations to hide them while single views are displayed
         if (index < 0) {
-            mItemDecorationCache.add(decor);
+            mItemDecorations.decorations.add(decor);
         } else {
-            mItemDecorationCache.add(index, decor);
+            mItemDecorations.decorations.add(index, decor);
         }
 
-        if (isItemViewShowing()) {
-            // directly add to parent, if itemview is already showing
-            super.addItemDecoration(decor, index);
+        if (mItemExtrasEnabled) {
+            invalidateItemExtras();
         }
     }
 
     @Override
     public void removeItemDecoration(ItemDecoration decor) {
-        if (mItemDecorationCache != null) {
-            mItemDecorationCache.remove(decor);
+        if (mItemDecorations == null || !mItemDecorations.decorations.remove(decor)) {
+            // not added through this view
+            super.removeItemDecoration(decor);
+        } else if (mItemExtrasEnabled) {
+            invalidateItemExtras();
         }
-        super.removeItemDecoration(decor);
     }
 
-    private void showItemDecorations() {
-        if (mItemDecorationCache != null) {
-            for (ItemDecoration decoration : mItemDecorationCache) {
-                super.addItemDecoration(decoration, -1);
-            }
-        }
+    @Override
+    public int getItemDecorationCount() {
+        return mItemDecorations != null ? mItemDecorations.decorations.size() : 0;
     }
 
-    private void hideItemDecorations() {
-        if (mItemDecorationCache != null) {
-            for (ItemDecoration decoration : mItemDecorationCache) {
-                super.removeItemDecoration(decoration);
-            }
+    @Override
+    public ItemDecoration getItemDecorationAt(int index) {
+        int size = getItemDecorationCount();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index + " is an invalid index for size " + size);
         }
+        return mItemDecorations.decorations.get(index);
     }
 
     @Override
     public void addOnScrollListener(OnScrollListener listener) {
-        if (mScrollListenerCache == null) {
-            mScrollListenerCache = new ArrayList<>();
-        }
-        mScrollListenerCache.add(listener);
-
-        if (isItemViewShowing()) {
-            // directly add to parent, if itemview is already showing
-            super.addOnScrollListener(listener);
+        if (mScrollListeners == null) {
+            mScrollListeners = new ScrollListeners();
+            mScrollListeners.enabled = mItemExtrasEnabled;
+            super.addOnScrollListener(mScrollListeners);
         }
+        mScrollListeners.listeners.add(listener);
     }
 
     @Override
     public void clearOnScrollListeners() {
-        if (mScrollListenerCache != null) {
-            mScrollListenerCache.clear();
-        }
+        // removes listeners not added through this view as well, the delegate is added again with the
+        // next listener
         super.clearOnScrollListeners();
+        mScrollListeners = null;
     }
 
     @Override
     public void removeOnScrollListener(OnScrollListener listener) {
-        if (mScrollListenerCache != null) {
-            mScrollListenerCache.remove(listener);
+        if (mScrollListeners == null || !mScrollListeners.listeners.remove(listener)) {
+            super.removeOnScrollListener(listener);
         }
-        super.removeOnScrollListener(listener);
     }
 
-    private void attachOnScrollListeners() {
-        if (mScrollListenerCache != null) {
-            for (OnScrollListener listener : mScrollListenerCache) {
-                super.addOnScrollListener(listener);
-            }
+    @Override
+    public void addOnItemTouchListener(OnItemTouchListener listener) {
+        if (mItemTouchListeners == null) {
+            mItemTouchListeners = new ItemTouchListeners();
+            mItemTouchListeners.enabled = mItemExtrasEnabled;
+            super.addOnItemTouchListener(mItemTouchListeners);
         }
+        mItemTouchListeners.listeners.add(listener);
     }
 
-    private void detachOnScrollListeners() {
-        super.clearOnScrollListeners();
+    @Override
+    public void removeOnItemTouchListener(OnItemTouchListener listener) {
+        if (mItemTouchListeners == null || !mItemTouchListeners.remove(listener)) {
+            super.removeOnItemTouchListener(listener);
+        }
     }
 
-    @Override
-    public void addOnItemTouchListener(OnItemTouchListener listener) {
-        if (mItemOnTouchListenerCache == null) {
-            mItemOnTouchListenerCache = new ArrayList<>();
+    /**
+     * dispatches to the item decorations in order, while enabled
+     */
+    private static final class ItemDecorations extends ItemDecoration {
+        private final ArrayList<ItemDecoration> decorations = new ArrayList<>();
+        private final Rect tempRect = new Rect();
+        private boolean enabled;
+
+        @Override
+        public void onDraw(Canvas c, RecyclerView parent, State state) {
+            if (enabled) {
+                for (int i = 0; i < decorations.size(); i++) {
+                    decorations.get(i).onDraw(c, parent, state);
+                }
+            }
         }
-        mItemOnTouchListenerCache.add(listener);
 
-        if (isItemViewShowing()) {
-            // directly add to parent, if itemview is already showing
-            super.addOnItemTouchListener(listener);
+        @Override
+        public void onDrawOver(Canvas c, RecyclerView parent, State state) {
+            if (enabled) {
+                for (int i = 0; i < decorations.size(); i++) {
+                    decorations.get(i).onDrawOver(c, parent, state);
+                }
+            }
         }
-    }
 
-    @Override
-    public void removeOnItemTouchListener(OnItemTouchListener listener) {
-        if (mItemOnTouchListenerCache != null) {
-            mItemOnTouchListenerCache.remove(listener);
+        @Override
+        public void getItemOffsets(Rect outRect, View view, RecyclerView parent, State state) {
+            outRect.set(0, 0, 0, 0);
+            if (!enabled) {
+                return;
+            }
+
+            // offsets add up, like those of decorations attached to the parent directly
+            for (int i = 0; i < decorations.size(); i++) {
+                tempRect.set(0, 0, 0, 0);
+                decorations.get(i).getItemOffsets(tempRect, view, parent, state);
+                outRect.left += tempRect.left;
+                outRect.top += tempRect.top;
+                outRect.right += tempRect.right;
+                outRect.bottom += tempRect.bottom;
+            }
         }
-        super.removeOnItemTouchListener(listener);
     }
 
-    private void attachOnItemTouchListeners() {
-        if (mItemOnTouchListenerCache != null) {
-            for (OnItemTouchListener listener : mItemOnTouchListenerCache) {
-                super.addOnItemTouchListener(listener);
+    /**
+     * dispatches to the scroll listeners, while enabled
+     */
+    private static final class ScrollListeners extends OnScrollListener {
+        private final ArrayList<OnScrollListener> listeners = new ArrayList<>();
+        private boolean enabled;
+
+        @Override
+        public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+            if (enabled) {
+                // same order as the parent, listeners may remove themselves
+                for (int i = listeners.size() - 1; i >= 0; i--) {
+                    listeners.get(i).onScrollStateChanged(recyclerView, newState);
+                }
+            }
+        }
+
+        @Override
+        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+            if (enabled) {
+                for (int i = listeners.size() - 1; i >= 0; i--) {
+                    listeners.get(i).onScrolled(recyclerView, dx, dy);
+                }
             }
         }
     }
 
-    private void detachOnItemTouchListeners() {
-        if (mItemOnTouchListenerCache != null) {
-            for (OnItemTouchListener listener : mItemOnTouchListenerCache) {
-                super.removeOnItemTouchListener(listener);
+    /**
+     * dispatches to the item touch listeners, while enabled. The listener intercepting a gesture
+     * receives its remaining events, like from the parent.
+     */
+    private static final class ItemTouchListeners implements OnItemTouchListener {
+        private final ArrayList<OnItemTouchListener> listeners = new ArrayList<>();
+        @Nullable
+        private OnItemTouchListener active;
+        private boolean enabled;
+
+        /**
+         * @return true if <code>listener</code> has been added to the delegate
+         */
+        boolean remove(OnItemTouchListener listener) {
+            if (active == listener) {
+                active = null;
+            }
+            return listeners.remove(listener);
+        }
+
+        @Override
+        public boolean onInterceptTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+            if (e.getActionMasked() == MotionEvent.ACTION_DOWN) {
+                active = null;
+            }
+            if (!enabled) {
+                return false;
+            }
+
+            for (int i = 0; i < listeners.size(); i++) {
+                OnItemTouchListener listener = listeners.get(i);
+                if (listener.onInterceptTouchEvent(rv, e)) {
+                    active = listener;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void onTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+            if (active != null) {
+                active.onTouchEvent(rv, e);
+            }
+
+            int action = e.getActionMasked();
+            if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+                active = null;
+            }
+        }
+
+        @Override
+        public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).onRequestDisallowInterceptTouchEvent(disallowIntercept);
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,297 @@
+package lu.aqu.reactivecomponents;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+import android.widget.ImageView;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import lu.aqu.reactivecomponents.transformers.ReactiveTransformer;
+
+/**
+ * Reference {@link ReactiveGallery.SizeAwareImageLoader} decoding images with {@link BitmapFactory}
+ * at the size they are displayed at.<br>
+ * Images are subsampled with the largest power of two <code>inSampleSize</code> which still covers
+ * the image view for its scale type, so decode time and heap use follow the view size instead of
+ * the image resolution. Bitmaps released by the gallery are kept in a small pool and reused as
+ * <code>inBitmap</code> for following decodes.
+ * <p>
+ * Images are decoded on {@link Schedulers#io()}. <code>http(s)</code> URLs are read through
+ * {@link URL#openStream()}, all other URLs (<code>content</code>, <code>file</code>,
+ * <code>android.resource</code>) through the {@link ContentResolver}. Override
+ * {@link #openStream(String)} to read images from other sources.
+ */
+public class SampledBitmapLoader implements ReactiveGallery.SizeAwareImageLoader {
+
+    private static final String TAG = "SampledBitmapLoader";
+    private static final int DEFAULT_POOL_SIZE = 3;
+
+    private final Context mContext;
+    private final int mPoolSize;
+    private final List<Bitmap> mReusableBitmaps = new ArrayList<>();
+
+    public SampledBitmapLoader(@NonNull Context context) {
+        this(context, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * @param context  to resolve local URLs and create drawables with
+     * @param poolSize maximum number of released bitmaps kept for reuse
+     */
+    public SampledBitmapLoader(@NonNull Context context, int poolSize) {
+        mContext = context.getApplicationContext();
+        mPoolSize = poolSize;
+    }
+
+    /**
+     * loads the image without a target size, i.e. at full resolution
+     */
+    @Nullable
+    @Override
+    public Disposable loadImage(String url, ReactiveGallery.LoadingCallback callback) {
+        return loadImage(url, 0, 0, ImageView.ScaleType.CENTER, callback);
+    }
+
+    @Nullable
+    @Override
+    public Disposable loadImage(String url, int width, int height, ImageView.ScaleType scaleType,
+                                ReactiveGallery.LoadingCallback callback) {
+        DecodeTask task = new DecodeTask(url, width, height, scaleType, callback);
+        Schedulers.io().scheduleDirect(task);
+        return task;
+    }
+
+    @Override
+    public void releaseImage(Drawable drawable) {
+        if (drawable instanceof BitmapDrawable) {
+            recycle(((BitmapDrawable) drawable).getBitmap());
+        }
+    }
+
+    /**
+     * opens the image behind <code>url</code>, called twice per decode on a background thread
+     *
+     * @param url of the image
+     * @return stream of the encoded image
+     * @throws IOException if the image cannot be read
+     */
+    @NonNull
+    protected InputStream openStream(@NonNull String url) throws IOException {
+        if (url.startsWith("http://") || url.startsWith("https://")) {
+            return new URL(url).openStream();
+        }
+
+        InputStream stream = mContext.getContentResolver().openInputStream(Uri.parse(url));
+        if (stream == null) {
+            throw new IOException("cannot open " + url);
+        }
+        return stream;
+    }
+
+    /**
+     * @param task disposed when the image is no longer needed, checked before the full decode
+     * @return the decoded image, <code>null</code> if it cannot be decoded or the task has been disposed
+     */
+    @Nullable
+    private Bitmap decode(String url, int width, int height, ImageView.ScaleType scaleType, Disposable task)
+            throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        decodeStream(url, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0 || task.isDisposed()) {
+            return null;
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize(options.outWidth, options.outHeight, width, height, scaleType);
+        options.inMutable = true;
+        options.inBitmap = takeReusable(options);
+
+        try {
+            return decodeStream(url, options);
+        } catch (IllegalArgumentException e) {
+            // the reused bitmap did not fit the image after all
+            if (options.inBitmap == null) {
+                throw e;
+            }
+            options.inBitmap = null;
+            return decodeStream(url, options);
+        }
+    }
+
+    private Bitmap decodeStream(String url, BitmapFactory.Options options) throws IOException {
+        InputStream stream = openStream(url);
+        try {
+            return BitmapFactory.decodeStream(stream, null, options);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * @return largest power of two subsampling at which the image still covers the requested size
+     */
+    static int sampleSize(int imageWidth, int imageHeight, int width, int height, ImageView.ScaleType scaleType) {
+        if (width <= 0 || height <= 0) {
+            return 1;
+        }
+
+        float scale;
+        switch (scaleType) {
+            case CENTER:
+            case MATRIX:
+                // displayed unscaled
+                return 1;
+            case CENTER_CROP:
+            case FIT_XY:
+                // both sides have to cover the view
+                scale = Math.max((float) width / imageWidth, (float) height / imageHeight);
+                break;
+            default:
+                // the image fits into the view
+                scale = Math.min((float) width / imageWidth, (float) height / imageHeight);
+                break;
+        }
+
+        int sampleSize = 1;
+        while (sampleSize * 2 * scale <= 1f) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    @Nullable
+    private Bitmap takeReusable(BitmapFactory.Options options) {
+        synchronized (mReusableBitmaps) {
+            for (int i = 0; i < mReusableBitmaps.size(); i++) {
+                Bitmap bitmap = mReusableBitmaps.get(i);
+                if (canReuse(bitmap, options)) {
+                    mReusableBitmaps.remove(i);
+                    return bitmap;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean canReuse(Bitmap bitmap, BitmapFactory.Options options) {
+        if (bitmap.isRecycled()) {
+            return false;
+        }
+
+        int width = (options.outWidth + options.inSampleSize - 1) / options.inSampleSize;
+        int height = (options.outHeight + options.inSampleSize - 1) / options.inSampleSize;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            // any bitmap with enough memory can be reused
+            return width * height * bytesPerPixel(bitmap.getConfig()) <= bitmap.getAllocationByteCount();
+        }
+        // before KitKat only unsampled decodes of the same size are supported
+        return options.inSampleSize == 1 && bitmap.getWidth() == width && bitmap.getHeight() == height;
+    }
+
+    private static int bytesPerPixel(@Nullable Bitmap.Config config) {
+        if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) {
+            return 2;
+        } else if (config == Bitmap.Config.ALPHA_8) {
+            return 1;
+        }
+        return 4;
+    }
+
+    private void recycle(@Nullable Bitmap bitmap) {
+        if (bitmap == null || !bitmap.isMutable() || bitmap.isRecycled()) {
+            return;
+        }
+
+        synchronized (mReusableBitmaps) {
+            if (mReusableBitmaps.size() < mPoolSize && !mReusableBitmaps.contains(bitmap)) {
+                mReusableBitmaps.add(bitmap);
+            }
+        }
+    }
+
+    /**
+     * decodes a single image in the background and delivers it on the main thread, unless it has
+     * been disposed in the meantime. Disposing skips the full decode if it has not started yet.
+     */
+    private final class DecodeTask extends AtomicBoolean implements Runnable, Disposable {
+
+        private static final long serialVersionUID = 3517094618249037715L;
+
+        private final String url;
+        private final int width;
+        private final int height;
+        private final ImageView.ScaleType scaleType;
+        private final ReactiveGallery.LoadingCallback callback;
+
+        private DecodeTask(String url, int width, int height, ImageView.ScaleType scaleType,
+                           ReactiveGallery.LoadingCallback callback) {
+            this.url = url;
+            this.width = width;
+            this.height = height;
+            this.scaleType = scaleType;
+            this.callback = callback;
+        }
+
+        @Override
+        public void run() {
+            if (isDisposed()) {
+                return;
+            }
+
+            Bitmap bitmap = null;
+            try {
+                bitmap = decode(url, width, height, scaleType, this);
+            } catch (IOException | IllegalArgumentException e) {
+                Log.w(TAG, "failed to decode " + url, e);
+            }
+
+            if (isDisposed()) {
+                // disposed while decoding, e.g. by a fast swipe, the bitmap can be reused right away
+                recycle(bitmap);
+                return;
+            }
+
+            final Bitmap result = bitmap;
+            ReactiveTransformer.getMainThread().post(new Runnable() {
+                @Override
+                public void run() {
+                    if (isDisposed()) {
+                        recycle(result);
+                        return;
+                    }
+
+                    Resources resources = mContext.getResources();
+                    callback.onLoadFinished(result != null ? new BitmapDrawable(resources, result) : null);
+                }
+            });
+        }
+
+        @Override
+        public void dispose() {
+            set(true);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package lu.aqu.reactivecomponents;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import java.util.List;
+
+/**
+ * Adapter wrapping the user's item adapter and appending a slot for a single view (progress or
+ * empty view) after the items.<br>
+ * The wrapper stays attached to the RecyclerView for all view states, so state changes neither
+ * clear the RecycledViewPool nor rebind the item views. As the slot is placed after the items,
+ * item positions are identical in both adapters, e.g. for <code>getAdapterPosition()</code> of the
+ * item view holders.<br>
+ * Stable ids of the item adapter are forwarded, the wrapper has to be detached from the
+ * RecyclerView to change them, see {@link #setHasStableIds(boolean)}.
+ */
+@SuppressWarnings("unchecked")
+final class StateSlotAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+    static final int TYPE_PROGRESS = Integer.MIN_VALUE;
+    static final int TYPE_EMPTY = Integer.MIN_VALUE + 1;
+
+    /**
+     * stable id of the slot, if the item adapter has stable ids
+     */
+    private static final long SLOT_ID = Long.MIN_VALUE;
+
+    @Nullable
+    private RecyclerView.Adapter mItemAdapter;
+    @Nullable
+    private RecyclerView.Adapter mSlotAdapter;
+    @Nullable
+    private RecyclerView mRecyclerView;
+
+    private final RecyclerView.AdapterDataObserver mItemObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            notifyItemRangeChanged(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            notifyItemRangeChanged(positionStart, itemCount, payload);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            notifyItemRangeInserted(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            notifyItemRangeRemoved(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            // adapters only dispatch single item moves
+            notifyItemMoved(fromPosition, toPosition);
+        }
+    };
+
+    /**
+     * @param adapter the user's item adapter, may be null
+     */
+    void setItemAdapter(@Nullable RecyclerView.Adapter adapter) {
+        if (adapter == mItemAdapter) {
+            return;
+        }
+
+        if (mItemAdapter != null) {
+            mItemAdapter.unregisterAdapterDataObserver(mItemObserver);
+            if (mRecyclerView != null) {
+                mItemAdapter.onDetachedFromRecyclerView(mRecyclerView);
+            }
+        }
+
+        mItemAdapter = adapter;
+
+        if (mItemAdapter != null) {
+            mItemAdapter.registerAdapterDataObserver(mItemObserver);
+            if (mRecyclerView != null) {
+                mItemAdapter.onAttachedToRecyclerView(mRecyclerView);
+            }
+        }
+        notifyDataSetChanged();
+    }
+
+    /**
+     * @param adapter single item adapter displayed after the items, null to hide the slot
+     */
+    void setSlotAdapter(@Nullable RecyclerView.Adapter adapter) {
+        RecyclerView.Adapter previous = mSlotAdapter;
+        if (adapter == previous) {
+            return;
+        }
+
+        mSlotAdapter = adapter;
+        int position = getItemAdapterCount();
+        if (previous != null && adapter != null) {
+            notifyItemChanged(position);
+        } else if (previous != null) {
+            notifyItemRemoved(position);
+        } else {
+            notifyItemInserted(position);
+        }
+    }
+
+    @Nullable
+    RecyclerView.Adapter getSlotAdapter() {
+        return mSlotAdapter;
+    }
+
+    /**
+     * @param position in this adapter
+     * @return the position in the item adapter, {@link RecyclerView#NO_POSITION} for the slot
+     */
+    int toItemPosition(int position) {
+        return position >= 0 && !isSlotPosition(position) ? position : RecyclerView.NO_POSITION;
+    }
+
+    private int getItemAdapterCount() {
+        return mItemAdapter != null ? mItemAdapter.getItemCount() : 0;
+    }
+
+    private int getSlotCount() {
+        return mSlotAdapter != null ? 1 : 0;
+    }
+
+    private boolean isSlotPosition(int position) {
+        return position >= getItemAdapterCount();
+    }
+
+    private static boolean isSlotType(int viewType) {
+        return viewType == TYPE_PROGRESS || viewType == TYPE_EMPTY;
+    }
+
+    @Override
+    public int getItemCount() {
+        return getSlotCount() + getItemAdapterCount();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return isSlotPosition(position)
+                ? mSlotAdapter.getItemViewType(0)
+                : mItemAdapter.getItemViewType(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        if (isSlotPosition(position)) {
+            return hasStableIds() ? SLOT_ID : RecyclerView.NO_ID;
+        }
+        return mItemAdapter.getItemId(position);
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return isSlotType(viewType)
+                ? mSlotAdapter.onCreateViewHolder(parent, viewType)
+                : mItemAdapter.onCreateViewHolder(parent, viewType);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        if (isSlotPosition(position)) {
+            bindSlot(holder);
+        } else {
+            mItemAdapter.onBindViewHolder(holder, position);
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (isSlotPosition(position)) {
+            bindSlot(holder);
+        } else {
+            mItemAdapter.onBindViewHolder(holder, position, payloads);
+        }
+    }
+
+    private void bindSlot(RecyclerView.ViewHolder holder) {
+        mSlotAdapter.onBindViewHolder(holder, 0);
+
+        // the slot fills the list when there are no items, otherwise it wraps its content
+        // along the scroll axis
+        ViewGroup.LayoutParams params = holder.itemView.getLayoutParams();
+        if (params != null) {
+            int size = getItemAdapterCount() > 0
+                    ? ViewGroup.LayoutParams.WRAP_CONTENT
+                    : ViewGroup.LayoutParams.MATCH_PARENT;
+            RecyclerView.LayoutManager layoutManager = mRecyclerView != null
+                    ? mRecyclerView.getLayoutManager()
+                    : null;
+            if (layoutManager != null && layoutManager.canScrollHorizontally()) {
+                params.width = size;
+            } else {
+                params.height = size;
+            }
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        if (!isSlotType(holder.getItemViewType()) && mItemAdapter != null) {
+            mItemAdapter.onViewRecycled(holder);
+        }
+    }
+
+    @Override
+    public boolean onFailedToRecycleView(@NonNull RecyclerView.ViewHolder holder) {
+        if (!isSlotType(holder.getItemViewType()) && mItemAdapter != null) {
+            return mItemAdapter.onFailedToRecycleView(holder);
+        }
+        return false;
+    }
+
+    @Override
+    public void onViewAttachedToWindow(@NonNull RecyclerView.ViewHolder holder) {
+        if (!isSlotType(holder.getItemViewType()) && mItemAdapter != null) {
+            mItemAdapter.onViewAttachedToWindow(holder);
+        }
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(@NonNull RecyclerView.ViewHolder holder) {
+        if (!isSlotType(holder.getItemViewType()) && mItemAdapter != null) {
+            mItemAdapter.onViewDetachedFromWindow(holder);
+        }
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        mRecyclerView = recyclerView;
+        if (mItemAdapter != null) {
+            mItemAdapter.onAttachedToRecyclerView(recyclerView);
+        }
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        if (mItemAdapter != null) {
+            mItemAdapter.onDetachedFromRecyclerView(recyclerView);
+        }
+        mRecyclerView = null;
+    }
+}
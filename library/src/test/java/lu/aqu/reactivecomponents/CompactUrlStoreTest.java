@@ -0,0 +1,80 @@
+package lu.aqu.reactivecomponents;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CompactUrlStoreTest {
+
+    @Test
+    public void testUrlsRestored() {
+        CompactUrlStore store = new CompactUrlStore();
+        store.add("https://cdn.example.com/album/1/photo-1.jpg");
+        store.add("https://cdn.example.com/album/1/photo-2.jpg");
+        store.add("no-slash");
+        store.add("https://cdn.example.com/");
+
+        assertEquals(4, store.size());
+        assertEquals("https://cdn.example.com/album/1/photo-1.jpg", store.get(0));
+        assertEquals("https://cdn.example.com/album/1/photo-2.jpg", store.get(1));
+        assertEquals("no-slash", store.get(2));
+        assertEquals("https://cdn.example.com/", store.get(3));
+    }
+
+    @Test
+    public void testGrowsBeyondInitialCapacity() {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            urls.add("https://cdn.example.com/album/" + (i % 7) + "/photo-" + i + ".jpg");
+        }
+
+        CompactUrlStore store = new CompactUrlStore();
+        store.addAll(urls.subList(0, 500));
+        for (int i = 500; i < urls.size(); i++) {
+            store.add(urls.get(i));
+        }
+
+        assertEquals(urls.size(), store.size());
+        for (int i = 0; i < urls.size(); i++) {
+            assertEquals(urls.get(i), store.get(i));
+        }
+    }
+
+    @Test
+    public void testRemoveRange() {
+        CompactUrlStore store = new CompactUrlStore();
+        store.addAll(Arrays.asList("a/1", "a/22", "b/333", "a/4444", "b/5"));
+
+        store.removeRange(1, 2);
+
+        assertEquals(3, store.size());
+        assertEquals("a/1", store.get(0));
+        assertEquals("a/4444", store.get(1));
+        assertEquals("b/5", store.get(2));
+
+        store.add("c/6");
+        assertEquals("c/6", store.get(3));
+    }
+
+    @Test
+    public void testClear() {
+        CompactUrlStore store = new CompactUrlStore();
+        store.addAll(Arrays.asList("a/1", "b/2"));
+        store.clear();
+
+        assertEquals(0, store.size());
+        store.add("c/3");
+        assertEquals("c/3", store.get(0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds() {
+        CompactUrlStore store = new CompactUrlStore();
+        store.add("a/1");
+        store.get(1);
+    }
+}
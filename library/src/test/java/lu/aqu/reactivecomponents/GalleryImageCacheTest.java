@@ -0,0 +1,103 @@
+package lu.aqu.reactivecomponents;
+
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class GalleryImageCacheTest {
+
+    private static final int SIZE = 10;
+    private static final int BYTES = SIZE * SIZE * 4;
+
+    @Test
+    public void testLookupReturnsCopy() {
+        GalleryImageCache cache = new GalleryImageCache(2 * BYTES);
+        BitmapDrawable image = createImage();
+        cache.put("a", SIZE, SIZE, image);
+
+        Drawable first = cache.get("a", SIZE, SIZE);
+        Drawable second = cache.get("a", SIZE, SIZE);
+        assertNotSame(image, first);
+        assertNotSame(first, second);
+        assertSame(image.getBitmap(), ((BitmapDrawable) first).getBitmap());
+        assertNull(cache.get("a", 2 * SIZE, SIZE));
+    }
+
+    @Test
+    public void testCachedImageReferencedAtAnySize() {
+        GalleryImageCache cache = new GalleryImageCache(2 * BYTES);
+        BitmapDrawable image = createImage();
+        cache.put("a", SIZE, SIZE, image);
+
+        // e.g. looked up by a gallery of another size, or after a resize
+        assertTrue(cache.isReferenced(image));
+        assertTrue(cache.isReferenced(cache.get("a", SIZE, SIZE)));
+        assertFalse(cache.isReferenced(createImage()));
+    }
+
+    @Test
+    public void testEvictedImageNotReferenced() {
+        GalleryImageCache cache = new GalleryImageCache(BYTES);
+        BitmapDrawable image = createImage();
+        cache.put("a", SIZE, SIZE, image);
+        cache.put("b", SIZE, SIZE, createImage());
+
+        assertFalse(cache.contains("a", SIZE, SIZE));
+        assertFalse(cache.isReferenced(image));
+    }
+
+    @Test
+    public void testShownImageReferencedAfterEviction() {
+        GalleryImageCache cache = new GalleryImageCache(BYTES);
+        BitmapDrawable image = createImage();
+        cache.put("a", SIZE, SIZE, image);
+        Drawable shown = cache.get("a", SIZE, SIZE);
+        cache.retain(shown);
+
+        cache.put("b", SIZE, SIZE, createImage());
+        assertTrue(cache.isReferenced(image));
+
+        cache.release(shown);
+        assertFalse(cache.isReferenced(image));
+    }
+
+    @Test
+    public void testReferenceCheckKeepsOrder() {
+        GalleryImageCache cache = new GalleryImageCache(2 * BYTES);
+        BitmapDrawable image = createImage();
+        cache.put("a", SIZE, SIZE, image);
+        cache.put("b", SIZE, SIZE, createImage());
+
+        assertTrue(cache.isReferenced(image));
+        // "a" is still the least recently used entry
+        cache.put("c", SIZE, SIZE, createImage());
+        assertFalse(cache.isReferenced(image));
+        assertTrue(cache.contains("b", SIZE, SIZE));
+    }
+
+    @Test
+    public void testClearReleasesImages() {
+        GalleryImageCache cache = new GalleryImageCache(2 * BYTES);
+        BitmapDrawable image = createImage();
+        cache.put("a", SIZE, SIZE, image);
+        cache.put("a", 2 * SIZE, SIZE, image);
+
+        cache.clear();
+        assertFalse(cache.isReferenced(image));
+    }
+
+    private static BitmapDrawable createImage() {
+        Bitmap bitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        return new BitmapDrawable(RuntimeEnvironment.application.getResources(), bitmap);
+    }
+}
@@ -0,0 +1,349 @@
+package lu.aqu.reactivecomponents;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.support.annotation.NonNull;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Runs scripted widget scenarios on the JVM and checks their layout work against
+ * <code>layout-budgets.properties</code>: <code>requestLayout</code> calls, measure / layout
+ * passes, created view holders, adapter swaps and item decoration invalidations of the
+ * RecyclerView.<br>
+ * Views are not attached to a window, every scripted step is followed by a measure and layout
+ * pass if one has been requested, like the next frame would.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class LayoutBudgetTest {
+
+    private static final int REFRESH_CYCLES = 10;
+    private static final int TOGGLES = 50;
+    private static final int GALLERY_IMAGES = 500;
+
+    private final LayoutBudgets budgets = new LayoutBudgets();
+
+    @Test
+    public void testRecyclerViewRefresh() {
+        LayoutCounts counts = refresh(ReactiveRecyclerView.STATE_MODE_SWAP);
+
+        budgets.check("recyclerView.refresh.requestLayout", counts.requestLayout);
+        budgets.check("recyclerView.refresh.layoutPasses", counts.layoutPasses);
+        budgets.check("recyclerView.refresh.adapterSwaps", counts.adapterSwaps);
+        budgets.check("recyclerView.refresh.invalidateItemDecorations", counts.invalidateItemDecorations);
+        budgets.check("recyclerView.refresh.createViewHolder", counts.createViewHolder);
+    }
+
+    @Test
+    public void testRecyclerViewRefreshSlotMode() {
+        LayoutCounts counts = refresh(ReactiveRecyclerView.STATE_MODE_SLOT);
+
+        budgets.check("recyclerView.refreshSlot.adapterSwaps", counts.adapterSwaps);
+        budgets.check("recyclerView.refreshSlot.invalidateItemDecorations", counts.invalidateItemDecorations);
+        budgets.check("recyclerView.refreshSlot.createViewHolder", counts.createViewHolder);
+    }
+
+    private LayoutCounts refresh(int stateMode) {
+        final LayoutCounts counts = new LayoutCounts();
+        CountingRecyclerView recyclerView = new CountingRecyclerView(getContext(), counts);
+        recyclerView.setStateMode(stateMode);
+        recyclerView.setLayoutManager(new CountingLayoutManager(getContext(), counts));
+        recyclerView.addItemDecoration(new SpacingDecoration());
+        recyclerView.addItemDecoration(new SpacingDecoration());
+
+        recyclerView.setAdapter(new CountingAdapter(50, counts));
+        layout(recyclerView, 1080, 1920);
+        counts.reset();
+
+        for (int i = 0; i < REFRESH_CYCLES; i++) {
+            recyclerView.setIsLoading(true);
+            layout(recyclerView, 1080, 1920);
+
+            recyclerView.setAdapter(new CountingAdapter(50, counts));
+            layout(recyclerView, 1080, 1920);
+        }
+        return counts;
+    }
+
+    @Test
+    public void testFloatingActionButtonToggle() {
+        LayoutCounts counts = new LayoutCounts();
+        CountingFloatingActionButton fab = new CountingFloatingActionButton(getContext(), counts);
+        layout(fab, 200, 200);
+        counts.reset();
+
+        for (int i = 0; i < TOGGLES; i++) {
+            fab.setIsLoading(true);
+            layout(fab, 200, 200);
+            fab.setIsLoading(false);
+            layout(fab, 200, 200);
+        }
+
+        budgets.check("fab.toggle.requestLayout", counts.requestLayout);
+        budgets.check("fab.toggle.layoutPasses", counts.layoutPasses);
+    }
+
+    @Test
+    public void testLoadingFloatingActionButtonToggle() {
+        LayoutCounts counts = new LayoutCounts();
+        CountingLoadingFloatingActionButton fab = new CountingLoadingFloatingActionButton(getContext(), counts);
+        layout(fab, 200, 200);
+        counts.reset();
+
+        for (int i = 0; i < TOGGLES; i++) {
+            fab.setIsLoading(true);
+            layout(fab, 200, 200);
+            fab.setIsLoading(false);
+            layout(fab, 200, 200);
+        }
+
+        budgets.check("loadingFab.toggle.requestLayout", counts.requestLayout);
+        budgets.check("loadingFab.toggle.layoutPasses", counts.layoutPasses);
+    }
+
+    @Test
+    public void testGalleryScroll() {
+        final LayoutCounts counts = new LayoutCounts();
+        CountingGallery gallery = new CountingGallery(getContext(), counts);
+
+        String[] urls = new String[GALLERY_IMAGES];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = "https://cdn.example.com/album/photo-" + i + ".jpg";
+        }
+        gallery.setUrls(Arrays.asList(urls));
+        layout(gallery, 1080, 720);
+
+        final RecyclerView pager = (RecyclerView) gallery.getChildAt(0);
+        final RecyclerView.Adapter adapter = pager.getAdapter();
+        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                // rebinds every page like an adapter swap
+                counts.adapterSwaps++;
+            }
+        });
+        final Set<RecyclerView.ViewHolder> holders =
+                Collections.newSetFromMap(new IdentityHashMap<RecyclerView.ViewHolder, Boolean>());
+        pager.addOnChildAttachStateChangeListener(new RecyclerView.OnChildAttachStateChangeListener() {
+            @Override
+            public void onChildViewAttachedToWindow(View view) {
+                holders.add(pager.getChildViewHolder(view));
+            }
+
+            @Override
+            public void onChildViewDetachedFromWindow(View view) {
+            }
+        });
+        counts.reset();
+
+        for (int i = 1; i < GALLERY_IMAGES; i++) {
+            pager.scrollBy(1080, 0);
+            layout(gallery, 1080, 720);
+            if (pager.getAdapter() != adapter) {
+                counts.adapterSwaps++;
+            }
+        }
+        counts.createViewHolder = holders.size();
+
+        budgets.check("gallery.scroll.requestLayout", counts.requestLayout);
+        budgets.check("gallery.scroll.layoutPasses", counts.layoutPasses);
+        budgets.check("gallery.scroll.adapterSwaps", counts.adapterSwaps);
+        budgets.check("gallery.scroll.createViewHolder", counts.createViewHolder);
+    }
+
+    /**
+     * measures and lays out <code>view</code> at the given size, if it has requested a layout
+     */
+    private static void layout(View view, int width, int height) {
+        if (view.isLayoutRequested()) {
+            view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+            view.layout(0, 0, width, height);
+        }
+    }
+
+    private static Context getContext() {
+        return new ContextThemeWrapper(RuntimeEnvironment.application, R.style.Theme_AppCompat);
+    }
+
+    private static class LayoutCounts {
+        long requestLayout;
+        long layoutPasses;
+        long adapterSwaps;
+        long invalidateItemDecorations;
+        long createViewHolder;
+
+        void reset() {
+            requestLayout = 0;
+            layoutPasses = 0;
+            adapterSwaps = 0;
+            invalidateItemDecorations = 0;
+            createViewHolder = 0;
+        }
+    }
+
+    private static class CountingRecyclerView extends ReactiveRecyclerView {
+        private final LayoutCounts counts;
+
+        CountingRecyclerView(Context context, LayoutCounts counts) {
+            super(context);
+            this.counts = counts;
+        }
+
+        @Override
+        public void requestLayout() {
+            // called from the super constructor as well
+            if (counts != null) {
+                counts.requestLayout++;
+            }
+            super.requestLayout();
+        }
+
+        @Override
+        public void invalidateItemDecorations() {
+            counts.invalidateItemDecorations++;
+            super.invalidateItemDecorations();
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int l, int t, int r, int b) {
+            counts.layoutPasses++;
+            super.onLayout(changed, l, t, r, b);
+        }
+    }
+
+    private static class CountingLayoutManager extends LinearLayoutManager {
+        private final LayoutCounts counts;
+
+        CountingLayoutManager(Context context, LayoutCounts counts) {
+            super(context);
+            this.counts = counts;
+        }
+
+        @Override
+        public void onAdapterChanged(RecyclerView.Adapter oldAdapter, RecyclerView.Adapter newAdapter) {
+            counts.adapterSwaps++;
+            super.onAdapterChanged(oldAdapter, newAdapter);
+        }
+    }
+
+    private static class CountingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        private final int count;
+        private final LayoutCounts counts;
+
+        CountingAdapter(int count, LayoutCounts counts) {
+            this.count = count;
+            this.counts = counts;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            counts.createViewHolder++;
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 192));
+            return new RecyclerView.ViewHolder(view) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return count;
+        }
+    }
+
+    private static class SpacingDecoration extends RecyclerView.ItemDecoration {
+        @Override
+        public void getItemOffsets(Rect outRect, View view, RecyclerView parent, RecyclerView.State state) {
+            outRect.set(0, 0, 0, 1);
+        }
+    }
+
+    private static class CountingFloatingActionButton extends ReactiveFloatingActionButton {
+        private final LayoutCounts counts;
+
+        CountingFloatingActionButton(Context context, LayoutCounts counts) {
+            super(context);
+            this.counts = counts;
+        }
+
+        @Override
+        public void requestLayout() {
+            if (counts != null) {
+                counts.requestLayout++;
+            }
+            super.requestLayout();
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int l, int t, int r, int b) {
+            counts.layoutPasses++;
+            super.onLayout(changed, l, t, r, b);
+        }
+    }
+
+    private static class CountingLoadingFloatingActionButton extends LoadingFloatingActionButton {
+        private final LayoutCounts counts;
+
+        CountingLoadingFloatingActionButton(Context context, LayoutCounts counts) {
+            super(context);
+            this.counts = counts;
+        }
+
+        @Override
+        public void requestLayout() {
+            if (counts != null) {
+                counts.requestLayout++;
+            }
+            super.requestLayout();
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int l, int t, int r, int b) {
+            counts.layoutPasses++;
+            super.onLayout(changed, l, t, r, b);
+        }
+    }
+
+    private static class CountingGallery extends ReactiveGallery {
+        private final LayoutCounts counts;
+
+        CountingGallery(Context context, LayoutCounts counts) {
+            super(context, null);
+            this.counts = counts;
+        }
+
+        @Override
+        public void requestLayout() {
+            if (counts != null) {
+                counts.requestLayout++;
+            }
+            super.requestLayout();
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int l, int t, int r, int b) {
+            counts.layoutPasses++;
+            super.onLayout(changed, l, t, r, b);
+        }
+    }
+}
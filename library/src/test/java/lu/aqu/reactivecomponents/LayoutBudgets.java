@@ -0,0 +1,44 @@
+package lu.aqu.reactivecomponents;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * budgets checked in to <code>layout-budgets.properties</code>
+ */
+public class LayoutBudgets {
+
+    private static final String FILE = "/layout-budgets.properties";
+
+    private final Properties mBudgets = new Properties();
+
+    public LayoutBudgets() {
+        InputStream stream = LayoutBudgets.class.getResourceAsStream(FILE);
+        assertNotNull(FILE + " not found", stream);
+        try {
+            try {
+                mBudgets.load(stream);
+            } finally {
+                stream.close();
+            }
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * fails if <code>actual</code> exceeds the budget of <code>key</code>
+     *
+     * @param key    of the budget
+     * @param actual counted value
+     */
+    public void check(String key, long actual) {
+        String budget = mBudgets.getProperty(key);
+        assertNotNull("no budget for " + key, budget);
+        long max = Long.parseLong(budget.trim());
+        assertTrue(key + " exceeds its budget of " + max + ", measured " + key + "=" + actual, actual <= max);
+    }
+}
@@ -0,0 +1,190 @@
+package lu.aqu.reactivecomponents;
+
+import android.support.annotation.NonNull;
+import android.support.v7.util.DiffUtil;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
+import lu.aqu.reactivecomponents.transformers.ReactiveTransformer;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class ReactiveListAdapterTest {
+
+    private final FakeMainThread mainThread = new FakeMainThread();
+    private final List<String> notifications = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        ReactiveTransformer.setMainThread(mainThread);
+    }
+
+    @After
+    public void tearDown() {
+        ReactiveTransformer.setMainThread(null);
+    }
+
+    @Test
+    public void testFirstListEndsPending() {
+        StringAdapter adapter = createAdapter(Schedulers.trampoline());
+        assertTrue(adapter.isPending());
+
+        adapter.accept(Collections.<String>emptyList());
+        assertTrue(adapter.isPending());
+
+        mainThread.drain();
+        assertFalse(adapter.isPending());
+        assertEquals(Collections.singletonList("changed"), notifications);
+    }
+
+    @Test
+    public void testDiffDispatchesRangeUpdates() {
+        StringAdapter adapter = createAdapter(Schedulers.trampoline());
+        adapter.submitList(Arrays.asList("a", "b", "c"));
+        notifications.clear();
+
+        adapter.submitList(Arrays.asList("a", "c", "d"));
+        assertEquals(Arrays.asList("a", "b", "c"), adapter.getItems());
+
+        mainThread.drain();
+        assertEquals(Arrays.asList("a", "c", "d"), adapter.getItems());
+        // one removal and one insertion, the view holders of "a" and "c" are kept
+        assertEquals(2, notifications.size());
+        assertTrue(notifications.contains("removed 1 1"));
+        assertFalse(notifications.contains("changed"));
+    }
+
+    @Test
+    public void testSupersededDiffSkipped() {
+        TestScheduler diffScheduler = new TestScheduler();
+        StringAdapter adapter = createAdapter(diffScheduler);
+        adapter.submitList(Collections.singletonList("a"));
+        notifications.clear();
+
+        adapter.submitList(Arrays.asList("a", "b"));
+        adapter.submitList(Arrays.asList("a", "b", "c"));
+        diffScheduler.triggerActions();
+
+        // the first diff has been superseded before it started
+        assertEquals(1, mainThread.pending());
+        mainThread.drain();
+        assertEquals(Arrays.asList("a", "b", "c"), adapter.getItems());
+        assertEquals(Collections.singletonList("inserted 1 2"), notifications);
+    }
+
+    @Test
+    public void testStaleDiffResultDropped() {
+        TestScheduler diffScheduler = new TestScheduler();
+        StringAdapter adapter = createAdapter(diffScheduler);
+        adapter.submitList(Collections.singletonList("a"));
+
+        adapter.submitList(Arrays.asList("a", "b"));
+        diffScheduler.triggerActions();
+        // superseded while the result is waiting for the main thread
+        adapter.submitList(Collections.<String>emptyList());
+        notifications.clear();
+
+        mainThread.drain();
+        assertTrue(adapter.getItems().isEmpty());
+        assertTrue(notifications.isEmpty());
+    }
+
+    @Test
+    public void testAcceptSubmitsLatestList() {
+        StringAdapter adapter = createAdapter(Schedulers.trampoline());
+
+        adapter.accept(Collections.singletonList("a"));
+        adapter.accept(Arrays.asList("a", "b"));
+        assertEquals(1, mainThread.pending());
+
+        mainThread.drain();
+        assertEquals(Arrays.asList("a", "b"), adapter.getItems());
+
+        adapter.accept(Arrays.asList("a", "b", "c"));
+        assertEquals(1, mainThread.pending());
+        mainThread.drain();
+        assertEquals(Arrays.asList("a", "b", "c"), adapter.getItems());
+    }
+
+    private StringAdapter createAdapter(Scheduler diffScheduler) {
+        StringAdapter adapter = new StringAdapter(diffScheduler);
+        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                notifications.add("changed");
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount) {
+                notifications.add("changed " + positionStart + " " + itemCount);
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                notifications.add("changed " + positionStart + " " + itemCount);
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                notifications.add("inserted " + positionStart + " " + itemCount);
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                notifications.add("removed " + positionStart + " " + itemCount);
+            }
+
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                notifications.add("moved " + fromPosition + " " + toPosition);
+            }
+        });
+        return adapter;
+    }
+
+    private static class StringAdapter extends ReactiveListAdapter<String, RecyclerView.ViewHolder> {
+
+        private StringAdapter(Scheduler diffScheduler) {
+            super(new DiffUtil.ItemCallback<String>() {
+                @Override
+                public boolean areItemsTheSame(String oldItem, String newItem) {
+                    return oldItem.equals(newItem);
+                }
+
+                @Override
+                public boolean areContentsTheSame(String oldItem, String newItem) {
+                    return oldItem.equals(newItem);
+                }
+            }, diffScheduler);
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            return new RecyclerView.ViewHolder(new View(parent.getContext())) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+    }
+}
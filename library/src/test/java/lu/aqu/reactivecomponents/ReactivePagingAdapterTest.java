@@ -0,0 +1,215 @@
+package lu.aqu.reactivecomponents;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.RecyclerView;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
+import lu.aqu.reactivecomponents.transformers.ReactiveTransformer;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class ReactivePagingAdapterTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    private final FakeMainThread mainThread = new FakeMainThread();
+
+    @After
+    public void tearDown() {
+        ReactiveTransformer.setMainThread(null);
+    }
+
+    @Test
+    public void testProgressKeptUntilFirstPage() {
+        ReactiveTransformer.setMainThread(mainThread);
+        ProcessorLoader loader = new ProcessorLoader();
+        ReactiveRecyclerView recyclerView = createRecyclerView();
+        IntegerAdapter adapter = new IntegerAdapter(loader);
+
+        adapter.attachTo(recyclerView);
+        mainThread.advance(1000);
+        assertTrue(recyclerView.isLoading());
+
+        // the loading state is released before the first page has reached the adapter
+        recyclerView.onLoadingFinished();
+        assertTrue(recyclerView.isLoading());
+        assertFalse(recyclerView.isEmptyViewShowing());
+
+        loader.page(0).onNext(createPage(0, PAGE_SIZE));
+        mainThread.advance(1000);
+        assertFalse(recyclerView.isLoading());
+        assertFalse(recyclerView.isEmptyViewShowing());
+        assertEquals(PAGE_SIZE, adapter.getLoadedItemCount());
+    }
+
+    @Test
+    public void testFailedFirstPageEndsProgress() {
+        ReactiveTransformer.setMainThread(mainThread);
+        ProcessorLoader loader = new ProcessorLoader();
+        ReactiveRecyclerView recyclerView = createRecyclerView();
+        IntegerAdapter adapter = new IntegerAdapter(loader);
+
+        adapter.attachTo(recyclerView);
+        mainThread.advance(1000);
+        loader.page(0).onError(new Exception("test"));
+        mainThread.advance(1000);
+
+        assertFalse(adapter.isPending());
+        assertFalse(recyclerView.isLoading());
+        assertTrue(recyclerView.isEmptyViewShowing());
+    }
+
+    @Test
+    public void testDroppedPageLoadCancelled() {
+        ReactiveTransformer.setMainThread(mainThread);
+        ProcessorLoader loader = new ProcessorLoader();
+        IntegerAdapter adapter = new IntegerAdapter(loader);
+
+        adapter.attachTo(createRecyclerView());
+        loader.page(0).onNext(createPage(0, PAGE_SIZE));
+        mainThread.advance(1000);
+        // the second page is within the prefetch distance of the first item
+        loader.page(1).onNext(createPage(PAGE_SIZE, PAGE_SIZE));
+        mainThread.advance(1000);
+        assertEquals(2 * PAGE_SIZE, adapter.getLoadedItemCount());
+
+        adapter.setPrefetchDistance(0);
+        adapter.setMaxPagesInMemory(1);
+        assertNull(adapter.getItem(PAGE_SIZE));
+        assertFalse(loader.page(1).hasSubscribers());
+        assertTrue(loader.page(0).hasSubscribers());
+    }
+
+    @Test
+    public void testDroppedPageResultIgnored() {
+        ReactiveTransformer.setMainThread(mainThread);
+        ProcessorLoader loader = new ProcessorLoader();
+        IntegerAdapter adapter = new IntegerAdapter(loader);
+
+        adapter.attachTo(createRecyclerView());
+        loader.page(0).onNext(createPage(0, PAGE_SIZE));
+        mainThread.advance(1000);
+        loader.page(1).onNext(createPage(PAGE_SIZE, PAGE_SIZE));
+        mainThread.drain();
+        // the update is still queued when the page is dropped
+        loader.page(1).onNext(createPage(PAGE_SIZE, PAGE_SIZE));
+
+        adapter.setPrefetchDistance(0);
+        adapter.setMaxPagesInMemory(1);
+        mainThread.advance(1000);
+        assertNull(adapter.getItem(PAGE_SIZE));
+    }
+
+    @Test
+    public void testSynchronousFailureCanBeRetried() {
+        ReactiveTransformer.setMainThread(new InlineMainThread());
+        final List<Integer> requests = new ArrayList<>();
+        IntegerAdapter adapter = new IntegerAdapter(new ReactivePagingAdapter.PageLoader<Integer>() {
+            @Override
+            public Flowable<List<Integer>> loadPage(int page, int pageSize) {
+                requests.add(page);
+                return requests.size() == 1
+                        ? Flowable.<List<Integer>>error(new Exception("test"))
+                        : Flowable.just(createPage(0, pageSize / 2));
+            }
+        });
+
+        adapter.attachTo(createRecyclerView());
+        assertEquals(0, adapter.getLoadedItemCount());
+
+        // the failed request has been released, the page is requested again
+        adapter.retry();
+        assertEquals(2, requests.size());
+        assertEquals(PAGE_SIZE / 2, adapter.getLoadedItemCount());
+    }
+
+    private static ReactiveRecyclerView createRecyclerView() {
+        return new ReactiveRecyclerView(new ContextThemeWrapper(RuntimeEnvironment.application,
+                R.style.Theme_AppCompat));
+    }
+
+    private static List<Integer> createPage(int first, int size) {
+        List<Integer> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(first + i);
+        }
+        return Collections.unmodifiableList(items);
+    }
+
+    private static class ProcessorLoader implements ReactivePagingAdapter.PageLoader<Integer> {
+        private final List<PublishProcessor<List<Integer>>> pages = new ArrayList<>();
+
+        @Override
+        public Flowable<List<Integer>> loadPage(int page, int pageSize) {
+            return page(page);
+        }
+
+        PublishProcessor<List<Integer>> page(int page) {
+            while (pages.size() <= page) {
+                pages.add(PublishProcessor.<List<Integer>>create());
+            }
+            return pages.get(page);
+        }
+    }
+
+    /**
+     * runs posted runnables right away, like a load completing on the main thread
+     */
+    private static class InlineMainThread implements MainThread {
+        @Override
+        public void post(Runnable runnable) {
+            runnable.run();
+        }
+
+        @Override
+        public void postDelayed(Runnable runnable, long delayMillis) {
+            runnable.run();
+        }
+
+        @Override
+        public void removeCallbacks(Runnable runnable) {
+        }
+
+        @Override
+        public long uptimeMillis() {
+            return 0;
+        }
+    }
+
+    private static class IntegerAdapter extends ReactivePagingAdapter<Integer, RecyclerView.ViewHolder> {
+
+        private IntegerAdapter(PageLoader<Integer> loader) {
+            super(loader, PAGE_SIZE);
+        }
+
+        @NonNull
+        @Override
+        protected RecyclerView.ViewHolder onCreateItemViewHolder(@NonNull ViewGroup parent, int viewType) {
+            return new RecyclerView.ViewHolder(new View(parent.getContext())) {
+            };
+        }
+
+        @Override
+        protected void onBindItemViewHolder(@NonNull RecyclerView.ViewHolder holder, @Nullable Integer item,
+                                            int position) {
+        }
+    }
+}
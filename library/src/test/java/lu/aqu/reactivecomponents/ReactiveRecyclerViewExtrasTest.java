@@ -0,0 +1,280 @@
+package lu.aqu.reactivecomponents;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.support.annotation.NonNull;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.ContextThemeWrapper;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Item decorations and listeners of {@link ReactiveRecyclerView}, which are dispatched by
+ * delegates attached to the parent once.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class ReactiveRecyclerViewExtrasTest {
+
+    private static final int ITEM_HEIGHT = 100;
+
+    private final List<String> events = new ArrayList<>();
+
+    @Test
+    public void testDecorationOffsetsAddUp() {
+        ReactiveRecyclerView recyclerView = createRecyclerView(ReactiveRecyclerView.STATE_MODE_SWAP);
+        recyclerView.addItemDecoration(new OffsetDecoration(3, 2, 0, 0));
+        recyclerView.addItemDecoration(new OffsetDecoration(0, 5, 0, 1));
+        recyclerView.setAdapter(new ItemAdapter(20));
+        layout(recyclerView);
+
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        View item = recyclerView.getChildAt(0);
+        assertEquals(3, layoutManager.getLeftDecorationWidth(item));
+        assertEquals(7, layoutManager.getTopDecorationHeight(item));
+        assertEquals(1, layoutManager.getBottomDecorationHeight(item));
+
+        // the progress view is not decorated
+        recyclerView.setIsLoading(true);
+        layout(recyclerView);
+        assertEquals(0, layoutManager.getTopDecorationHeight(recyclerView.getChildAt(0)));
+
+        recyclerView.setIsLoading(false);
+        layout(recyclerView);
+        assertEquals(7, layoutManager.getTopDecorationHeight(recyclerView.getChildAt(0)));
+    }
+
+    @Test
+    public void testDecorationAccessors() {
+        ReactiveRecyclerView recyclerView = createRecyclerView(ReactiveRecyclerView.STATE_MODE_SWAP);
+        RecyclerView.ItemDecoration first = new OffsetDecoration(0, 1, 0, 0);
+        RecyclerView.ItemDecoration second = new OffsetDecoration(0, 2, 0, 0);
+        RecyclerView.ItemDecoration third = new OffsetDecoration(0, 4, 0, 0);
+        recyclerView.addItemDecoration(second);
+        recyclerView.addItemDecoration(third);
+        recyclerView.addItemDecoration(first, 0);
+
+        assertEquals(3, recyclerView.getItemDecorationCount());
+        assertSame(first, recyclerView.getItemDecorationAt(0));
+        assertSame(second, recyclerView.getItemDecorationAt(1));
+        assertSame(third, recyclerView.getItemDecorationAt(2));
+
+        recyclerView.removeItemDecoration(second);
+        recyclerView.removeItemDecorationAt(0);
+        assertEquals(1, recyclerView.getItemDecorationCount());
+        assertSame(third, recyclerView.getItemDecorationAt(0));
+        try {
+            recyclerView.getItemDecorationAt(1);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+
+        // removed decorations no longer add their offsets
+        recyclerView.setAdapter(new ItemAdapter(20));
+        layout(recyclerView);
+        assertEquals(4, recyclerView.getLayoutManager().getTopDecorationHeight(recyclerView.getChildAt(0)));
+    }
+
+    @Test
+    public void testInterceptingTouchListenerReceivesGesture() {
+        ReactiveRecyclerView recyclerView = createRecyclerView(ReactiveRecyclerView.STATE_MODE_SWAP);
+        recyclerView.addOnItemTouchListener(new RecordingTouchListener("a", false));
+        recyclerView.addOnItemTouchListener(new RecordingTouchListener("b", true));
+        recyclerView.addOnItemTouchListener(new RecordingTouchListener("c", true));
+        recyclerView.setAdapter(new ItemAdapter(20));
+        layout(recyclerView);
+
+        assertTrue(recyclerView.onInterceptTouchEvent(obtain(MotionEvent.ACTION_DOWN)));
+        recyclerView.onTouchEvent(obtain(MotionEvent.ACTION_MOVE));
+        recyclerView.onTouchEvent(obtain(MotionEvent.ACTION_UP));
+        assertEquals(Arrays.asList("a intercept 0", "b intercept 0", "b touch 2", "b touch 1"), events);
+
+        // skipped while the progress view is shown
+        events.clear();
+        recyclerView.setIsLoading(true);
+        assertFalse(recyclerView.onInterceptTouchEvent(obtain(MotionEvent.ACTION_DOWN)));
+        assertTrue(events.isEmpty());
+
+        recyclerView.setIsLoading(false);
+        assertTrue(recyclerView.onInterceptTouchEvent(obtain(MotionEvent.ACTION_DOWN)));
+        assertEquals(Arrays.asList("a intercept 0", "b intercept 0"), events);
+    }
+
+    @Test
+    public void testScrollListenersCalledInParentOrder() {
+        ReactiveRecyclerView recyclerView = createRecyclerView(ReactiveRecyclerView.STATE_MODE_SWAP);
+        recyclerView.setAdapter(new ItemAdapter(50));
+        RecyclerView parent = new RecyclerView(getContext());
+        parent.setLayoutManager(new LinearLayoutManager(getContext()));
+        parent.setAdapter(new ItemAdapter(50));
+
+        List<String> expected = scrollTwice(parent);
+        List<String> actual = scrollTwice(recyclerView);
+        assertEquals(Arrays.asList("c", "b", "a", "c", "b"), expected);
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * scrolls <code>recyclerView</code> twice with three listeners, the first one removes itself
+     * when called
+     *
+     * @return names of the listeners in the order they have been called
+     */
+    private List<String> scrollTwice(RecyclerView recyclerView) {
+        layout(recyclerView);
+        final List<String> calls = new ArrayList<>();
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                calls.add("a");
+                recyclerView.removeOnScrollListener(this);
+            }
+        });
+        for (final String name : Arrays.asList("b", "c")) {
+            recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+                @Override
+                public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                    calls.add(name);
+                }
+            });
+        }
+
+        recyclerView.scrollBy(0, ITEM_HEIGHT);
+        recyclerView.scrollBy(0, ITEM_HEIGHT);
+        return calls;
+    }
+
+    @Test
+    public void testChangesEndProgress() {
+        for (int stateMode : new int[]{ReactiveRecyclerView.STATE_MODE_SWAP, ReactiveRecyclerView.STATE_MODE_SLOT}) {
+            ReactiveRecyclerView recyclerView = createRecyclerView(stateMode);
+            ItemAdapter adapter = new ItemAdapter(20);
+            recyclerView.setAdapter(adapter);
+
+            recyclerView.setIsLoading(true);
+            adapter.notifyItemRangeChanged(0, 1);
+            assertFalse(recyclerView.isLoading());
+            assertFalse(recyclerView.isEmptyViewShowing());
+
+            recyclerView.setIsLoading(true);
+            adapter.notifyDataSetChanged();
+            assertFalse(recyclerView.isLoading());
+            assertFalse(recyclerView.isEmptyViewShowing());
+
+            recyclerView.setIsLoading(true);
+            adapter.count = 0;
+            adapter.notifyDataSetChanged();
+            assertTrue(recyclerView.isEmptyViewShowing());
+        }
+    }
+
+    private static ReactiveRecyclerView createRecyclerView(int stateMode) {
+        ReactiveRecyclerView recyclerView = new ReactiveRecyclerView(getContext());
+        recyclerView.setStateMode(stateMode);
+        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        return recyclerView;
+    }
+
+    /**
+     * measures and lays out <code>view</code> at 1080x1920, if it has requested a layout
+     */
+    private static void layout(View view) {
+        if (view.isLayoutRequested()) {
+            view.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+            view.layout(0, 0, 1080, 1920);
+        }
+    }
+
+    private static MotionEvent obtain(int action) {
+        return MotionEvent.obtain(0, 0, action, 10, 10, 0);
+    }
+
+    private static Context getContext() {
+        return new ContextThemeWrapper(RuntimeEnvironment.application, R.style.Theme_AppCompat);
+    }
+
+    private class RecordingTouchListener implements RecyclerView.OnItemTouchListener {
+        private final String name;
+        private final boolean intercept;
+
+        RecordingTouchListener(String name, boolean intercept) {
+            this.name = name;
+            this.intercept = intercept;
+        }
+
+        @Override
+        public boolean onInterceptTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+            events.add(name + " intercept " + e.getActionMasked());
+            return intercept;
+        }
+
+        @Override
+        public void onTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+            events.add(name + " touch " + e.getActionMasked());
+        }
+
+        @Override
+        public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+        }
+    }
+
+    private static class OffsetDecoration extends RecyclerView.ItemDecoration {
+        private final int left;
+        private final int top;
+        private final int right;
+        private final int bottom;
+
+        OffsetDecoration(int left, int top, int right, int bottom) {
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+        }
+
+        @Override
+        public void getItemOffsets(Rect outRect, View view, RecyclerView parent, RecyclerView.State state) {
+            outRect.set(left, top, right, bottom);
+        }
+    }
+
+    private static class ItemAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        int count;
+
+        ItemAdapter(int count) {
+            this.count = count;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ITEM_HEIGHT));
+            return new RecyclerView.ViewHolder(view) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return count;
+        }
+    }
+}
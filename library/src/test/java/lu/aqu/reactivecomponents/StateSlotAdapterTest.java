@@ -0,0 +1,109 @@
+package lu.aqu.reactivecomponents;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * Progress view of a {@link ReactiveRecyclerView} in {@link ReactiveRecyclerView#STATE_MODE_SLOT}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class StateSlotAdapterTest {
+
+    private static final int ITEMS = 5;
+
+    @Test
+    public void testItemPositionsKept() {
+        View progressView = new View(getContext());
+        ReactiveRecyclerView recyclerView = createRecyclerView(progressView);
+        recyclerView.setIsLoading(true);
+        layout(recyclerView);
+
+        assertEquals(ITEMS + 1, recyclerView.getChildCount());
+        for (int i = 0; i < ITEMS; i++) {
+            assertEquals(i, recyclerView.getChildViewHolder(recyclerView.getChildAt(i)).getAdapterPosition());
+        }
+        assertSame(recyclerView.getChildAt(ITEMS), progressView.getParent());
+    }
+
+    @Test
+    public void testRefreshReusesSlotHolder() {
+        View progressView = new View(getContext());
+        ReactiveRecyclerView recyclerView = createRecyclerView(progressView);
+
+        recyclerView.setIsLoading(true);
+        layout(recyclerView);
+        RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder((View) progressView.getParent());
+
+        for (int i = 0; i < 3; i++) {
+            recyclerView.setIsLoading(false);
+            layout(recyclerView);
+            assertEquals(ITEMS, recyclerView.getChildCount());
+
+            recyclerView.setIsLoading(true);
+            layout(recyclerView);
+            assertSame(holder, recyclerView.getChildViewHolder((View) progressView.getParent()));
+        }
+    }
+
+    private static ReactiveRecyclerView createRecyclerView(View progressView) {
+        ReactiveRecyclerView recyclerView = new ReactiveRecyclerView(getContext());
+        recyclerView.setStateMode(ReactiveRecyclerView.STATE_MODE_SLOT);
+        recyclerView.setProgressView(progressView);
+        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        // removed holders are recycled right away
+        recyclerView.setItemAnimator(null);
+        recyclerView.setAdapter(new ItemAdapter());
+        layout(recyclerView);
+        return recyclerView;
+    }
+
+    /**
+     * measures and lays out <code>view</code> at 1080x1920, if it has requested a layout
+     */
+    private static void layout(View view) {
+        if (view.isLayoutRequested()) {
+            view.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+            view.layout(0, 0, 1080, 1920);
+        }
+    }
+
+    private static Context getContext() {
+        return new ContextThemeWrapper(RuntimeEnvironment.application, R.style.Theme_AppCompat);
+    }
+
+    private static class ItemAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 100));
+            return new RecyclerView.ViewHolder(view) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return ITEMS;
+        }
+    }
+}